@@ -56,10 +56,19 @@ public abstract class AbstractProvider implements ResourcePackDataProvider {
 
     protected boolean updateHash() {
         try {
-            if (Files.exists(PolymerResourcePackUtils.getMainPath())) {
-                hash = com.google.common.io.Files.asByteSource(PolymerResourcePackUtils.getMainPath().toFile()).hash(Hashing.sha1()).toString();
-                size = Files.size(PolymerResourcePackUtils.getMainPath());
-                lastUpdate = Files.getLastModifiedTime(PolymerResourcePackUtils.getMainPath()).toMillis();
+            var path = PolymerResourcePackUtils.getMainPath();
+            if (Files.exists(path)) {
+                var lastModified = Files.getLastModifiedTime(path).toMillis();
+                var built = PolymerResourcePackUtils.getLastBuiltPack();
+                // Hash is computed while building, so file only needs to be read again if it was changed by something else
+                if (built != null && built.path().equals(path) && built.lastModified() == lastModified) {
+                    hash = built.sha1();
+                    size = built.size();
+                } else {
+                    hash = com.google.common.io.Files.asByteSource(path.toFile()).hash(Hashing.sha1()).toString();
+                    size = Files.size(path);
+                }
+                lastUpdate = lastModified;
                 return true;
             }
         } catch (Exception e) {
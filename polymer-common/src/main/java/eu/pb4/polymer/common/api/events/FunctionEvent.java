@@ -7,22 +7,38 @@ import java.util.List;
 import java.util.function.Function;
 
 public final class FunctionEvent<T, R> {
-    private List<T> handlers = new ArrayList<>();
+    /**
+     * Immutable snapshot of handlers, replaced on every (un)registration, so it can be safely read from any thread
+     */
+    private volatile List<T> handlers = List.of();
 
     public void register(T listener) {
-        this.handlers.add(listener);
+        synchronized (this) {
+            var handlers = new ArrayList<>(this.handlers);
+            handlers.add(listener);
+            this.handlers = List.copyOf(handlers);
+        }
     }
 
     public T registerRet(T listener) {
-        this.handlers.add(listener);
+        this.register(listener);
         return listener;
     }
 
     public void unregister(T listener) {
-        this.handlers.remove(listener);
+        synchronized (this) {
+            var handlers = new ArrayList<>(this.handlers);
+            if (handlers.remove(listener)) {
+                this.handlers = List.copyOf(handlers);
+            }
+        }
     }
 
     public R invoke(Function<Collection<T>, R> invoker) {
-        return invoker.apply(handlers);
+        return invoker.apply(this.handlers);
+    }
+
+    public boolean isEmpty() {
+        return this.handlers.isEmpty();
     }
 }
@@ -1,33 +1,77 @@
 package eu.pb4.polymer.common.api.events;
 
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
+import java.util.function.BiConsumer;
 import java.util.function.Consumer;
 
 public final class SimpleEvent<T> {
-    private List<T> handlers = new ArrayList<>();
+    private static final Object[] EMPTY = new Object[0];
+    /**
+     * Immutable snapshot of handlers, replaced on every (un)registration, so it can be safely read from any thread
+     */
+    private volatile Object[] handlers = EMPTY;
 
     public void register(T listener) {
-        this.handlers.add(listener);
+        synchronized (this) {
+            var handlers = Arrays.copyOf(this.handlers, this.handlers.length + 1);
+            handlers[handlers.length - 1] = listener;
+            this.handlers = handlers;
+        }
     }
 
     public T registerRet(T listener) {
-        this.handlers.add(listener);
+        this.register(listener);
         return listener;
     }
 
     public void unregister(T listener) {
-        this.handlers.remove(listener);
+        synchronized (this) {
+            var handlers = this.handlers;
+            for (int i = 0; i < handlers.length; i++) {
+                if (handlers[i].equals(listener)) {
+                    var copy = new Object[handlers.length - 1];
+                    System.arraycopy(handlers, 0, copy, 0, i);
+                    System.arraycopy(handlers, i + 1, copy, i, handlers.length - i - 1);
+                    this.handlers = copy.length == 0 ? EMPTY : copy;
+                    return;
+                }
+            }
+        }
     }
 
+    @SuppressWarnings("unchecked")
     public void invoke(Consumer<T> invoker) {
-        for (var handler : handlers) {
-            invoker.accept(handler);
+        var handlers = this.handlers;
+        switch (handlers.length) {
+            case 0 -> {}
+            case 1 -> invoker.accept((T) handlers[0]);
+            default -> {
+                for (var handler : handlers) {
+                    invoker.accept((T) handler);
+                }
+            }
+        }
+    }
+
+    /**
+     * Variant of {@link #invoke(Consumer)} passing an argument, which allows using non-capturing invokers
+     */
+    @SuppressWarnings("unchecked")
+    public <A> void invoke(BiConsumer<T, A> invoker, A argument) {
+        var handlers = this.handlers;
+        switch (handlers.length) {
+            case 0 -> {}
+            case 1 -> invoker.accept((T) handlers[0], argument);
+            default -> {
+                for (var handler : handlers) {
+                    invoker.accept((T) handler, argument);
+                }
+            }
         }
     }
 
     public boolean isEmpty() {
-        return this.handlers.isEmpty();
+        return this.handlers.length == 0;
     }
 }
@@ -10,11 +10,12 @@ import eu.pb4.polymer.common.api.events.BooleanEvent;
 import eu.pb4.polymer.common.api.events.FunctionEvent;
 import eu.pb4.polymer.common.impl.CompatStatus;
 import eu.pb4.polymer.core.api.block.PolymerBlockUtils;
-import eu.pb4.polymer.core.api.entity.PolymerEntityUtils;
 import eu.pb4.polymer.core.api.other.PolymerComponent;
 import eu.pb4.polymer.core.api.utils.PolymerUtils;
 import eu.pb4.polymer.core.impl.PolymerImpl;
+import eu.pb4.polymer.core.impl.PolymerImplUtils;
 import eu.pb4.polymer.core.impl.TransformingComponent;
+import eu.pb4.polymer.core.impl.other.PolymerComponentImpl;
 import eu.pb4.polymer.core.impl.compat.polymc.PolyMcUtils;
 import eu.pb4.polymer.resourcepack.api.PolymerResourcePackUtils;
 import eu.pb4.polymer.rsm.api.RegistrySyncUtils;
@@ -22,11 +23,8 @@ import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.component.ComponentType;
 import net.minecraft.component.DataComponentTypes;
-import net.minecraft.component.EnchantmentEffectComponentTypes;
 import net.minecraft.component.type.*;
-import net.minecraft.entity.EntityType;
 import net.minecraft.entity.attribute.DefaultAttributeContainer;
-import net.minecraft.entity.attribute.DefaultAttributeRegistry;
 import net.minecraft.item.ArmorMaterial;
 import net.minecraft.item.BlockPredicatesChecker;
 import net.minecraft.item.Item;
@@ -156,7 +154,7 @@ public final class PolymerItemUtils {
             return createItemStack(itemStack, tooltipContext, lookup, player);
         }
 
-        if (ITEM_CHECK.invoke((x) -> x.test(itemStack))) {
+        if (ITEM_CHECK.invoke(Predicate::test, itemStack)) {
             return createItemStack(itemStack, tooltipContext, lookup, player);
         }
 
@@ -297,26 +295,27 @@ public final class PolymerItemUtils {
             ctx = PacketContext.of(player);
         }
 
-        for (var x : itemStack.getComponentChanges().entrySet()) {
-            if (!PolymerComponent.canSync(x.getKey(), x.getValue().orElse(null), ctx)) {
-                return true;
-            } else if (x.getValue() != null && x.getValue().isPresent()
-                    && x.getValue().get() instanceof TransformingComponent t
-                    && t.polymer$requireModification(ctx)) {
-                return true;
+        var changes = itemStack.getComponentChanges();
+        if (!changes.isEmpty()) {
+            for (var x : changes.entrySet()) {
+                if (!PolymerComponentImpl.requiresCheck(x.getKey(), x.getValue() != null ? x.getValue().orElse(null) : null)) {
+                    continue;
+                }
+
+                if (!PolymerComponent.canSync(x.getKey(), x.getValue().orElse(null), ctx)) {
+                    return true;
+                } else if (x.getValue() != null && x.getValue().isPresent()
+                        && x.getValue().get() instanceof TransformingComponent t
+                        && t.polymer$requireModification(ctx)) {
+                    return true;
+                }
             }
         }
 
         if (itemStack.contains(DataComponentTypes.ENCHANTMENTS) && itemStack.getOrDefault(DataComponentTypes.ATTRIBUTE_MODIFIERS, AttributeModifiersComponent.DEFAULT).showInTooltip()) {
             for (var ench : itemStack.get(DataComponentTypes.ENCHANTMENTS).getEnchantments()) {
-                var attributes = ench.value().getEffect(EnchantmentEffectComponentTypes.ATTRIBUTES);
-                if (attributes != null) {
-                    for (var attr : attributes) {
-                        if (PolymerEntityUtils.isPolymerEntityAttribute(attr.attribute())
-                                && DefaultAttributeRegistry.get(EntityType.PLAYER).has(attr.attribute())) {
-                            return true;
-                        }
-                    }
+                if (PolymerImplUtils.hasPolymerPlayerAttributes(ench)) {
+                    return true;
                 }
             }
         }
@@ -329,7 +328,7 @@ public final class PolymerItemUtils {
         }
 
 
-        return ITEM_CHECK.invoke((x) -> x.test(itemStack));
+        return ITEM_CHECK.invoke(Predicate::test, itemStack);
     }
 
     /**
@@ -498,6 +497,10 @@ public final class PolymerItemUtils {
             out.set(DataComponentTypes.ITEM_NAME, itemStack.getOrDefault(DataComponentTypes.ITEM_NAME,
                     itemStack.getItem().getName(itemStack)));
         }
+        if (ITEM_MODIFICATION_EVENT.isEmpty()) {
+            return out;
+        }
+
         return ITEM_MODIFICATION_EVENT.invoke((col) -> {
             var custom = out;
 
@@ -14,6 +14,7 @@ public interface PolymerComponent extends PolymerObject {
             RegistrySyncUtils.setServerEntry(Registries.DATA_COMPONENT_TYPE, type);
             PolymerComponentImpl.UNSYNCED_COMPONENTS.add(type);
         }
+        PolymerComponentImpl.invalidate();
     }
 
     static void registerEnchantmentEffectComponent(ComponentType<?>... types) {
@@ -2,6 +2,7 @@ package eu.pb4.polymer.core.impl;
 
 import eu.pb4.polymer.common.impl.CompatStatus;
 import eu.pb4.polymer.core.api.block.PolymerBlock;
+import eu.pb4.polymer.core.api.entity.PolymerEntityUtils;
 import eu.pb4.polymer.core.api.item.PolymerItemUtils;
 import eu.pb4.polymer.core.api.utils.PolymerUtils;
 import eu.pb4.polymer.core.impl.client.InternalClientRegistry;
@@ -19,7 +20,11 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.item.BlockItem;
 import net.minecraft.item.tooltip.TooltipType;
+import net.minecraft.component.EnchantmentEffectComponentTypes;
+import net.minecraft.enchantment.Enchantment;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityType;
+import net.minecraft.entity.attribute.DefaultAttributeRegistry;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
@@ -29,6 +34,7 @@ import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.Registries;
 import net.minecraft.registry.Registry;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.registry.entry.RegistryEntry;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.state.property.Property;
 import net.minecraft.util.Identifier;
@@ -40,6 +46,8 @@ import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.stream.Stream;
 
@@ -48,6 +56,7 @@ public class PolymerImplUtils {
 
     public static final Collection<BlockState> POLYMER_STATES = ((PolymerIdList<BlockState>) Block.STATE_IDS).polymer$getPolymerEntries();
     public static final RegistryWrapper.WrapperLookup FALLBACK_LOOKUP = DynamicRegistryManager.of(Registries.REGISTRIES);
+    private static final Map<RegistryEntry<Enchantment>, Boolean> ENCHANTMENT_PLAYER_ATTRIBUTES = new ConcurrentHashMap<>();
 
     public static Identifier id(String path) {
         return Identifier.of(PolymerUtils.ID, path);
@@ -225,6 +234,28 @@ public class PolymerImplUtils {
         }
         return isPolymerControlled(stack);
     }
+    /**
+     * Checks (and caches per enchantment) if enchantment modifies polymer attributes present on players.
+     */
+    public static boolean hasPolymerPlayerAttributes(RegistryEntry<Enchantment> enchantment) {
+        return ENCHANTMENT_PLAYER_ATTRIBUTES.computeIfAbsent(enchantment, (ench) -> {
+            var attributes = ench.value().getEffect(EnchantmentEffectComponentTypes.ATTRIBUTES);
+            if (attributes != null) {
+                for (var attr : attributes) {
+                    if (PolymerEntityUtils.isPolymerEntityAttribute(attr.attribute())
+                            && DefaultAttributeRegistry.get(EntityType.PLAYER).has(attr.attribute())) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        });
+    }
+
+    public static void clearEnchantmentCache() {
+        ENCHANTMENT_PLAYER_ATTRIBUTES.clear();
+    }
+
     public static boolean isPolymerControlled(ItemStack stack) {
         return PolymerItemUtils.isPolymerServerItem(stack) || PolymerItemUtils.getServerIdentifier(stack) != null || PolymerUtils.isServerOnly(stack);
     }
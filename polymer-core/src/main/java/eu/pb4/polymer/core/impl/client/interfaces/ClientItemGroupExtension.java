@@ -7,6 +7,7 @@ import net.minecraft.item.ItemStack;
 import org.jetbrains.annotations.ApiStatus;
 
 import java.util.Collection;
+import java.util.List;
 
 @ApiStatus.Internal
 @Environment(EnvType.CLIENT)
@@ -15,6 +16,8 @@ public interface ClientItemGroupExtension {
     void polymer$addStackGroup(ItemStack stack);
     void polymer$addStackSearch(ItemStack stack);
     void polymer$clearStacks();
+    void polymer$replaceStacksGroup(int start, int removed, List<ItemStack> added);
+    void polymer$replaceStacksSearch(int start, int removed, List<ItemStack> added);
     Collection<ItemStack> polymer$getStacksGroup();
     Collection<ItemStack> polymer$getStacksSearch();
 
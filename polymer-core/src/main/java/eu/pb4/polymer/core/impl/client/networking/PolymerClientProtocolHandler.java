@@ -71,6 +71,7 @@ public class PolymerClientProtocolHandler {
         registerCommonHandler(PolymerItemGroupDefineS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupDefine);
         registerCommonHandler(PolymerItemGroupContentAddS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupContentsAdd);
         registerCommonHandler(PolymerItemGroupContentClearS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupContentsClear);
+        registerCommonHandler(PolymerItemGroupContentUpdateS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupContentsUpdate);
         registerCommonHandler(PolymerItemGroupRemoveS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupRemove);
         registerCommonHandler(PolymerItemGroupApplyUpdateS2CPayload.class, PolymerClientProtocolHandler::handleItemGroupApplyUpdates);
         registerCommonHandler(PolymerSyncClearS2CPayload.class, (client, handler, payload) -> {
@@ -244,6 +245,20 @@ public class PolymerClientProtocolHandler {
         }
     }
 
+    private static void handleItemGroupContentsUpdate(MinecraftClient client, ClientCommonNetworkHandler handler, PolymerItemGroupContentUpdateS2CPayload payload) {
+        if (InternalClientRegistry.enabled) {
+            MinecraftClient.getInstance().execute(() -> {
+                ItemGroup group = InternalClientRegistry.getItemGroup(payload.groupId());
+
+                if (group != null) {
+                    var groupAccess = (ClientItemGroupExtension) group;
+                    groupAccess.polymer$replaceStacksGroup(payload.main().start(), payload.main().removed(), payload.main().added());
+                    groupAccess.polymer$replaceStacksSearch(payload.search().start(), payload.search().removed(), payload.search().added());
+                }
+            });
+        }
+    }
+
     private static void handleItemGroupContentsClear(MinecraftClient client, ClientCommonNetworkHandler handler, PolymerItemGroupContentClearS2CPayload payload) {
         if (InternalClientRegistry.enabled) {
             MinecraftClient.getInstance().execute(() -> {
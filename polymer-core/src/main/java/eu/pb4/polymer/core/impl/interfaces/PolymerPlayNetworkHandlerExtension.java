@@ -1,11 +1,17 @@
 package eu.pb4.polymer.core.impl.interfaces;
 
 import eu.pb4.polymer.core.api.block.BlockMapper;
+import eu.pb4.polymer.core.impl.networking.PendingBlockUpdates;
+import eu.pb4.polymer.core.impl.networking.payloads.s2c.PolymerItemGroupContentAddS2CPayload;
+import eu.pb4.polymer.core.impl.networking.payloads.s2c.PolymerItemGroupDefineS2CPayload;
 import net.minecraft.network.packet.Packet;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
 import org.jetbrains.annotations.ApiStatus;
 
+import java.util.Map;
+
 @ApiStatus.Internal
 @SuppressWarnings({"unused"})
 public interface PolymerPlayNetworkHandlerExtension extends PolymerCommonNetworkHandlerExtension {
@@ -23,5 +29,9 @@ public interface PolymerPlayNetworkHandlerExtension extends PolymerCommonNetwork
         return (PolymerPlayNetworkHandlerExtension) handler;
     }
 
-    void polymer$delayAfterSequence(Runnable runnable);
+    PendingBlockUpdates polymer$getPendingBlockUpdates();
+
+    Map<Identifier, PolymerItemGroupContentAddS2CPayload> polymer$getSyncedItemGroupContents();
+
+    Map<Identifier, PolymerItemGroupDefineS2CPayload> polymer$getSyncedItemGroupDefinitions();
 }
@@ -13,18 +13,20 @@ import net.minecraft.network.packet.s2c.play.BlockUpdateS2CPacket;
 import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.network.packet.s2c.play.ChunkDeltaUpdateS2CPacket;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.chunk.WorldChunk;
 
 public class BlockPacketUtil {
     public static void sendFromPacket(Packet<?> packet, ServerPlayNetworkHandler handler) {
         if (packet instanceof BlockUpdateS2CPacket blockUpdatePacket) {
             BlockState blockState = ((BlockUpdateS2CPacketAccessor) blockUpdatePacket).polymer$getState();
+            var pending = PolymerPlayNetworkHandlerExtension.of(handler).polymer$getPendingBlockUpdates();
             if (PolymerImplUtils.POLYMER_STATES.contains(blockState)) {
-                PolymerPlayNetworkHandlerExtension.of(handler).polymer$delayAfterSequence(new SendSingleBlockInfo(handler, blockUpdatePacket.getPos(), blockState));
+                pending.set(blockUpdatePacket.getPos(), blockState);
+            } else {
+                pending.remove(blockUpdatePacket.getPos());
             }
-        } else if (packet instanceof ChunkDataS2CPacket) {
+        } else if (packet instanceof ChunkDataS2CPacket chunkDataPacket) {
+            PolymerPlayNetworkHandlerExtension.of(handler).polymer$getPendingBlockUpdates().removeChunk(chunkDataPacket.getChunkX(), chunkDataPacket.getChunkZ());
             WorldChunk wc = ((ChunkDataS2CPacketInterface) packet).polymer$getWorldChunk();
             PolymerBlockPosStorage wci = (PolymerBlockPosStorage) wc;
             if (wc != null && wci.polymer$hasAny()) {
@@ -41,42 +43,22 @@ public class BlockPacketUtil {
             }
         } else if (packet instanceof ChunkDeltaUpdateS2CPacket) {
             var chunk = (ChunkDeltaUpdateS2CPacketAccessor) packet;
+            var pending = PolymerPlayNetworkHandlerExtension.of(handler).polymer$getPendingBlockUpdates();
+            var sectionPos = chunk.polymer_getSectionPos();
+            var positions = chunk.polymer_getPositions();
+            var blockStates = chunk.polymer_getBlockStates();
 
-            PolymerPlayNetworkHandlerExtension.of(handler).polymer$delayAfterSequence(new SendSequanceBlockInfo(handler,
-                    chunk.polymer_getSectionPos(), chunk.polymer_getBlockStates(), chunk.polymer_getPositions()));
+            for (int i = 0; i < positions.length; i++) {
+                if (PolymerImplUtils.POLYMER_STATES.contains(blockStates[i])) {
+                    pending.set(sectionPos, positions[i], blockStates[i]);
+                } else {
+                    pending.remove(sectionPos, positions[i]);
+                }
+            }
         }
     }
 
     public static void splitChunkDelta(ServerPlayNetworkHandler handler, ChunkDeltaUpdateS2CPacket cPacket) {
         cPacket.visitUpdates((blockPos, blockState) -> handler.sendPacket(new BlockUpdateS2CPacket(blockPos.toImmutable(), blockState)));
     }
-
-    private record SendSingleBlockInfo(ServerPlayNetworkHandler handler, BlockPos pos, BlockState blockState) implements Runnable {
-        @Override
-        public void run() {
-            PolymerServerProtocol.sendBlockUpdate(handler, pos, blockState);
-            if (blockState.getBlock() instanceof PolymerBlock polymerBlock) {
-                polymerBlock.onPolymerBlockSend(blockState, pos.mutableCopy(), handler.player);
-            }
-        }
-    }
-
-    private record SendSequanceBlockInfo(ServerPlayNetworkHandler handler, ChunkSectionPos chunkPos,
-                                         BlockState[] blockStates, short[] localPos) implements Runnable {
-        @Override
-        public void run() {
-            PolymerServerProtocol.sendMultiBlockUpdate(handler, chunkPos, localPos, blockStates);
-
-            var blockPos = new BlockPos.Mutable();
-
-            for (int i = 0; i < localPos.length; i++) {
-                BlockState blockState = blockStates[i];
-                blockPos.set(chunkPos.unpackBlockX(localPos[i]), chunkPos.unpackBlockY(localPos[i]), chunkPos.unpackBlockZ(localPos[i]));
-
-                if (blockState.getBlock() instanceof PolymerBlock) {
-                    ((PolymerBlock) blockState.getBlock()).onPolymerBlockSend(blockState, blockPos, handler.player);
-                }
-            }
-        }
-    }
 }
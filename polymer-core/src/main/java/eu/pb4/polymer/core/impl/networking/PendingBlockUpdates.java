@@ -0,0 +1,106 @@
+package eu.pb4.polymer.core.impl.networking;
+
+import eu.pb4.polymer.core.api.block.PolymerBlock;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.shorts.Short2ObjectLinkedOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.ApiStatus;
+
+/**
+ * Collects polymer block updates sent to a single player during a tick,
+ * so they can be sent as one section update per chunk section.
+ */
+@ApiStatus.Internal
+public final class PendingBlockUpdates {
+    private final Long2ObjectLinkedOpenHashMap<Short2ObjectLinkedOpenHashMap<BlockState>> sections = new Long2ObjectLinkedOpenHashMap<>();
+
+    public void set(BlockPos pos, BlockState state) {
+        this.getSection(ChunkSectionPos.toLong(pos)).put(ChunkSectionPos.packLocal(pos), state);
+    }
+
+    public void set(ChunkSectionPos sectionPos, short localPos, BlockState state) {
+        this.getSection(sectionPos.asLong()).put(localPos, state);
+    }
+
+    private Short2ObjectLinkedOpenHashMap<BlockState> getSection(long sectionPos) {
+        var section = this.sections.get(sectionPos);
+        if (section == null) {
+            section = new Short2ObjectLinkedOpenHashMap<>();
+            this.sections.put(sectionPos, section);
+        }
+        return section;
+    }
+
+    public void remove(BlockPos pos) {
+        var section = this.sections.get(ChunkSectionPos.toLong(pos));
+        if (section != null) {
+            section.remove(ChunkSectionPos.packLocal(pos));
+        }
+    }
+
+    public void remove(ChunkSectionPos sectionPos, short localPos) {
+        var section = this.sections.get(sectionPos.asLong());
+        if (section != null) {
+            section.remove(localPos);
+        }
+    }
+
+    /**
+     * Drops updates queued for chunk, used when full chunk data is sent, so outdated states aren't sent after it.
+     */
+    public void removeChunk(int chunkX, int chunkZ) {
+        if (this.sections.isEmpty()) {
+            return;
+        }
+
+        var iterator = this.sections.keySet().iterator();
+        while (iterator.hasNext()) {
+            var sectionPos = iterator.nextLong();
+            if (ChunkSectionPos.unpackX(sectionPos) == chunkX && ChunkSectionPos.unpackZ(sectionPos) == chunkZ) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.sections.isEmpty();
+    }
+
+    public void send(ServerPlayNetworkHandler handler) {
+        if (this.sections.isEmpty()) {
+            return;
+        }
+
+        var blockPos = new BlockPos.Mutable();
+        for (var entry : this.sections.long2ObjectEntrySet()) {
+            var section = entry.getValue();
+            if (section.isEmpty()) {
+                continue;
+            }
+
+            var sectionPos = ChunkSectionPos.from(entry.getLongKey());
+            var positions = section.keySet().toShortArray();
+            var states = section.values().toArray(new BlockState[0]);
+
+            if (positions.length == 1) {
+                blockPos.set(sectionPos.unpackBlockX(positions[0]), sectionPos.unpackBlockY(positions[0]), sectionPos.unpackBlockZ(positions[0]));
+                PolymerServerProtocol.sendBlockUpdate(handler, blockPos.toImmutable(), states[0]);
+            } else {
+                PolymerServerProtocol.sendMultiBlockUpdate(handler, sectionPos, positions, states);
+            }
+
+            for (int i = 0; i < positions.length; i++) {
+                var state = states[i];
+                if (state.getBlock() instanceof PolymerBlock polymerBlock) {
+                    blockPos.set(sectionPos.unpackBlockX(positions[i]), sectionPos.unpackBlockY(positions[i]), sectionPos.unpackBlockZ(positions[i]));
+                    polymerBlock.onPolymerBlockSend(state, blockPos, handler.player);
+                }
+            }
+        }
+
+        this.sections.clear();
+    }
+}
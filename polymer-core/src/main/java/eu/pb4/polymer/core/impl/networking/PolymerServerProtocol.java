@@ -7,6 +7,7 @@ import eu.pb4.polymer.core.impl.PolymerImpl;
 import eu.pb4.polymer.core.impl.PolymerImplUtils;
 import eu.pb4.polymer.core.impl.interfaces.PolymerBlockPosStorage;
 import eu.pb4.polymer.core.impl.interfaces.PolymerIdList;
+import eu.pb4.polymer.core.impl.interfaces.PolymerPlayNetworkHandlerExtension;
 import eu.pb4.polymer.core.impl.interfaces.RegistryExtension;
 import eu.pb4.polymer.core.impl.networking.entry.*;
 import eu.pb4.polymer.core.impl.networking.payloads.*;
@@ -114,6 +115,9 @@ public class PolymerServerProtocol {
         version = PolymerServerNetworking.getSupportedVersion(handler, S2CPackets.SYNC_CLEAR);
         if (version != -1) {
             handler.sendPacket(new CustomPayloadS2CPacket(new PolymerSyncClearS2CPayload()));
+            var ext = PolymerPlayNetworkHandlerExtension.of(handler);
+            ext.polymer$getSyncedItemGroupContents().clear();
+            ext.polymer$getSyncedItemGroupDefinitions().clear();
         }
 
         PolymerSyncUtils.BEFORE_ITEM_SYNC.invoke((listener) -> listener.accept(handler, fullSync));
@@ -182,57 +186,94 @@ public class PolymerServerProtocol {
         var version = PolymerServerNetworking.getSupportedVersion(handler, S2CPackets.SYNC_ITEM_GROUP_DEFINE);
 
         if (version != -1) {
+            boolean changed = false;
             for (var group : PolymerItemGroupUtils.getItemGroups(handler.getPlayer())) {
-                syncItemGroup(group, handler);
+                changed |= syncItemGroup(group, handler);
             }
 
-            handler.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupApplyUpdateS2CPayload()));
+            if (changed) {
+                handler.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupApplyUpdateS2CPayload()));
+            }
         }
     }
 
-    public static void syncItemGroup(ItemGroup group, ServerPlayNetworkHandler handler) {
+    public static boolean syncItemGroup(ItemGroup group, ServerPlayNetworkHandler handler) {
+        boolean changed = false;
         if (PolymerImpl.SYNC_MODDED_ENTRIES_POLYMC || PolymerItemGroupUtils.isPolymerItemGroup(group)) {
-            removeItemGroup(group, handler);
-            syncItemGroupDefinition(group, handler);
+            // Redefining group clears it on client, so it's only done if definition changed
+            var previous = PolymerPlayNetworkHandlerExtension.of(handler).polymer$getSyncedItemGroupDefinitions().get(PolymerItemGroupUtils.getId(group));
+            if (previous == null || !previous.definitionEquals(group.getDisplayName(), group.getIcon())) {
+                removeItemGroup(group, handler);
+                changed = syncItemGroupDefinition(group, handler);
+            }
         }
 
-        syncItemGroupContents(group, handler);
+        return syncItemGroupContents(group, handler) || changed;
     }
 
-    public static void syncItemGroupContents(ItemGroup group, ServerPlayNetworkHandler handler) {
+    public static boolean syncItemGroupContents(ItemGroup group, ServerPlayNetworkHandler handler) {
         var version = PolymerServerNetworking.getSupportedVersion(handler, S2CPackets.SYNC_ITEM_GROUP_CONTENTS_ADD);
 
         if (version != -1) {
             var id = PolymerItemGroupUtils.getId(group);
-            handler.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupContentClearS2CPayload(id)));
+            PolymerItemGroupContentAddS2CPayload entry;
 
+            try {
+                entry = PolymerItemGroupContentAddS2CPayload.of(group, handler);
+            } catch (Exception e) {
+                entry = new PolymerItemGroupContentAddS2CPayload(id, List.of(), List.of());
+            }
 
+            var synced = PolymerPlayNetworkHandlerExtension.of(handler).polymer$getSyncedItemGroupContents();
+            var previous = synced.put(id, entry);
 
-            try {
-                var entry = PolymerItemGroupContentAddS2CPayload.of(group, handler);
-                if (entry.isNonEmpty()) {
-                    handler.sendPacket(new CustomPayloadS2CPacket(entry));
+            if (previous != null) {
+                if (PolymerServerNetworking.getSupportedVersion(handler, S2CPackets.SYNC_ITEM_GROUP_CONTENTS_UPDATE) != -1) {
+                    var update = PolymerItemGroupContentUpdateS2CPayload.of(previous, entry);
+                    if (update.isNonEmpty()) {
+                        handler.sendPacket(new CustomPayloadS2CPacket(update));
+                        return true;
+                    }
+                    return false;
+                } else if (previous.contentEquals(entry)) {
+                    return false;
                 }
-            } catch (Exception e) {
+            }
 
+            handler.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupContentClearS2CPayload(id)));
+            if (entry.isNonEmpty()) {
+                handler.sendPacket(new CustomPayloadS2CPacket(entry));
             }
+            return true;
         }
 
+        return false;
     }
 
-    public static void syncItemGroupDefinition(ItemGroup group, ServerPlayNetworkHandler handler) {
+    public static boolean syncItemGroupDefinition(ItemGroup group, ServerPlayNetworkHandler handler) {
         var version = PolymerServerNetworking.getSupportedVersion(handler, S2CPackets.SYNC_ITEM_GROUP_DEFINE);
 
         if (version > -1 && (PolymerImpl.SYNC_MODDED_ENTRIES_POLYMC || PolymerItemGroupUtils.isPolymerItemGroup(group))) {
-            handler.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupDefineS2CPayload(PolymerItemGroupUtils.getId(group), group.getDisplayName(), group.getIcon())));
+            var id = PolymerItemGroupUtils.getId(group);
+            var ext = PolymerPlayNetworkHandlerExtension.of(handler);
+            // Client recreates the group without any contents
+            ext.polymer$getSyncedItemGroupContents().remove(id);
+            var payload = new PolymerItemGroupDefineS2CPayload(id, group.getDisplayName(), group.getIcon().copy());
+            ext.polymer$getSyncedItemGroupDefinitions().put(id, payload);
+            handler.sendPacket(new CustomPayloadS2CPacket(payload));
+            return true;
         }
+        return false;
     }
 
     public static void removeItemGroup(ItemGroup group, ServerPlayNetworkHandler player) {
         var version = PolymerServerNetworking.getSupportedVersion(player, S2CPackets.SYNC_ITEM_GROUP_REMOVE);
 
         if (version > -1 && PolymerItemGroupUtils.isPolymerItemGroup(group)) {
-            player.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupRemoveS2CPayload(PolymerItemGroupUtils.REGISTRY.getId(group))));
+            var id = PolymerItemGroupUtils.REGISTRY.getId(group);
+            PolymerPlayNetworkHandlerExtension.of(player).polymer$getSyncedItemGroupContents().remove(id);
+            PolymerPlayNetworkHandlerExtension.of(player).polymer$getSyncedItemGroupDefinitions().remove(id);
+            player.sendPacket(new CustomPayloadS2CPacket(new PolymerItemGroupRemoveS2CPayload(id)));
         }
     }
 
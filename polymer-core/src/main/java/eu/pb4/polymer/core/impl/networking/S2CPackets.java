@@ -31,6 +31,7 @@ public class S2CPackets {
     public static final Identifier SYNC_ITEM_GROUP_REMOVE= id("sync/item_group/remove");
     public static final Identifier SYNC_ITEM_GROUP_CONTENTS_ADD= id("sync/item_group/contents/add");
     public static final Identifier SYNC_ITEM_GROUP_CONTENTS_CLEAR= id("sync/item_group/contents/clear");
+    public static final Identifier SYNC_ITEM_GROUP_CONTENTS_UPDATE= id("sync/item_group/contents/update");
     public static final Identifier SYNC_BLOCKSTATE= id("sync/blockstate");
     public static final Identifier SYNC_TAGS= id("sync/tags");
     public static final Identifier SYNC_ITEM_GROUP_APPLY_UPDATE = id("sync/item_group/apply_update");
@@ -88,6 +89,7 @@ public class S2CPackets {
         register(SYNC_ITEM_GROUP_CONTENTS_CLEAR, PolymerItemGroupContentClearS2CPayload.CODEC, 8);
         register(SYNC_ITEM_GROUP_REMOVE, PolymerItemGroupRemoveS2CPayload.CODEC,8);
         register(SYNC_ITEM_GROUP_CONTENTS_ADD, PolymerItemGroupContentAddS2CPayload.CODEC,8);
+        register(SYNC_ITEM_GROUP_CONTENTS_UPDATE, PolymerItemGroupContentUpdateS2CPayload.CODEC,8);
         register(SYNC_ITEM_GROUP_APPLY_UPDATE, PolymerItemGroupApplyUpdateS2CPayload::new, 8);
 
         register(WORLD_SET_BLOCK_UPDATE, PolymerBlockUpdateS2CPayload.CODEC,8);
@@ -62,6 +62,23 @@ public record PolymerItemGroupContentAddS2CPayload(Identifier groupId, List<Item
         return !this.stacksMain.isEmpty() || !this.stacksSearch.isEmpty();
     }
 
+    public boolean contentEquals(PolymerItemGroupContentAddS2CPayload other) {
+        return contentEquals(this.stacksMain, other.stacksMain) && contentEquals(this.stacksSearch, other.stacksSearch);
+    }
+
+    private static boolean contentEquals(List<ItemStack> a, List<ItemStack> b) {
+        if (a.size() != b.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < a.size(); i++) {
+            if (!ItemStack.areEqual(a.get(i), b.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static PolymerItemGroupContentAddS2CPayload read(ContextByteBuf buf) {
         return new PolymerItemGroupContentAddS2CPayload(buf.readIdentifier(),
                 ItemStack.LIST_PACKET_CODEC.decode(buf),
@@ -0,0 +1,80 @@
+package eu.pb4.polymer.core.impl.networking.payloads.s2c;
+
+import eu.pb4.polymer.core.impl.networking.S2CPackets;
+import eu.pb4.polymer.networking.api.ContextByteBuf;
+import net.minecraft.item.ItemStack;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import java.util.List;
+
+/**
+ * Replaces a single changed range of already synced item group contents, instead of clearing and resending all of them.
+ */
+public record PolymerItemGroupContentUpdateS2CPayload(Identifier groupId, Delta main, Delta search) implements CustomPayload {
+    public static final CustomPayload.Id<PolymerItemGroupContentUpdateS2CPayload> ID = new CustomPayload.Id<>(S2CPackets.SYNC_ITEM_GROUP_CONTENTS_UPDATE);
+    public static final PacketCodec<ContextByteBuf, PolymerItemGroupContentUpdateS2CPayload> CODEC = PacketCodec.of(PolymerItemGroupContentUpdateS2CPayload::write, PolymerItemGroupContentUpdateS2CPayload::read);
+
+    public static PolymerItemGroupContentUpdateS2CPayload of(PolymerItemGroupContentAddS2CPayload previous, PolymerItemGroupContentAddS2CPayload current) {
+        return new PolymerItemGroupContentUpdateS2CPayload(current.groupId(),
+                Delta.of(previous.stacksMain(), current.stacksMain()),
+                Delta.of(previous.stacksSearch(), current.stacksSearch())
+        );
+    }
+
+    public void write(ContextByteBuf buf) {
+        buf.writeIdentifier(this.groupId);
+        this.main.write(buf);
+        this.search.write(buf);
+    }
+
+    public boolean isNonEmpty() {
+        return this.main.isNonEmpty() || this.search.isNonEmpty();
+    }
+
+    public static PolymerItemGroupContentUpdateS2CPayload read(ContextByteBuf buf) {
+        return new PolymerItemGroupContentUpdateS2CPayload(buf.readIdentifier(), Delta.read(buf), Delta.read(buf));
+    }
+
+    @Override
+    public Id<? extends CustomPayload> getId() {
+        return ID;
+    }
+
+    /**
+     * Removes {@code removed} stacks starting at {@code start} and inserts {@code added} in their place.
+     */
+    public record Delta(int start, int removed, List<ItemStack> added) {
+        public static Delta of(List<ItemStack> previous, List<ItemStack> current) {
+            int start = 0;
+            int max = Math.min(previous.size(), current.size());
+            while (start < max && ItemStack.areEqual(previous.get(start), current.get(start))) {
+                start++;
+            }
+
+            int endPrevious = previous.size();
+            int endCurrent = current.size();
+            while (endPrevious > start && endCurrent > start && ItemStack.areEqual(previous.get(endPrevious - 1), current.get(endCurrent - 1))) {
+                endPrevious--;
+                endCurrent--;
+            }
+
+            return new Delta(start, endPrevious - start, List.copyOf(current.subList(start, endCurrent)));
+        }
+
+        public boolean isNonEmpty() {
+            return this.removed != 0 || !this.added.isEmpty();
+        }
+
+        public void write(ContextByteBuf buf) {
+            buf.writeVarInt(this.start);
+            buf.writeVarInt(this.removed);
+            ItemStack.LIST_PACKET_CODEC.encode(buf, this.added);
+        }
+
+        public static Delta read(ContextByteBuf buf) {
+            return new Delta(buf.readVarInt(), buf.readVarInt(), ItemStack.LIST_PACKET_CODEC.decode(buf));
+        }
+    }
+}
@@ -23,6 +23,10 @@ public record PolymerItemGroupDefineS2CPayload(Identifier groupId, Text name, It
         ItemStack.PACKET_CODEC.encode((RegistryByteBuf) buf, icon);
     }
 
+    public boolean definitionEquals(Text name, ItemStack icon) {
+        return this.name.equals(name) && ItemStack.areEqual(this.icon, icon);
+    }
+
     public static PolymerItemGroupDefineS2CPayload read(PacketByteBuf buf) {
         return new PolymerItemGroupDefineS2CPayload(buf.readIdentifier(), TextCodecs.PACKET_CODEC.decode(buf), ItemStack.PACKET_CODEC.decode((RegistryByteBuf) buf));
     }
@@ -1,11 +1,58 @@
 package eu.pb4.polymer.core.impl.other;
 
 import eu.pb4.polymer.common.impl.CommonImplUtils;
+import eu.pb4.polymer.core.impl.TransformingComponent;
 import it.unimi.dsi.fastutil.objects.ObjectOpenCustomHashSet;
 import net.minecraft.component.ComponentType;
+import net.minecraft.registry.Registries;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.BitSet;
 import java.util.Set;
 
 public class PolymerComponentImpl {
     public static final Set<ComponentType<?>> UNSYNCED_COMPONENTS = new ObjectOpenCustomHashSet<>(CommonImplUtils.IDENTITY_HASH);
+    private static volatile BitSet requiresCheck;
+    private static volatile int classifiedSize;
+
+    /**
+     * Returns true, if component can make the stack require polymer's handling
+     * (either it's a polymer component or its value might need to be transformed).
+     * Polymer components are cached per raw id of the component type, while values are checked by their class.
+     */
+    public static boolean requiresCheck(ComponentType<?> type, @Nullable Object value) {
+        if (value instanceof TransformingComponent) {
+            return true;
+        }
+
+        var rawId = Registries.DATA_COMPONENT_TYPE.getRawId(type);
+        if (rawId == -1) {
+            return true;
+        }
+
+        var bitSet = requiresCheck;
+        if (bitSet == null || rawId >= classifiedSize) {
+            bitSet = classify();
+        }
+        return bitSet.get(rawId);
+    }
+
+    public static void invalidate() {
+        requiresCheck = null;
+    }
+
+    private static BitSet classify() {
+        var size = Registries.DATA_COMPONENT_TYPE.size();
+        var bitSet = new BitSet(size);
+        for (var type : UNSYNCED_COMPONENTS) {
+            var rawId = Registries.DATA_COMPONENT_TYPE.getRawId(type);
+            if (rawId != -1) {
+                bitSet.set(rawId);
+            }
+        }
+
+        classifiedSize = size;
+        requiresCheck = bitSet;
+        return bitSet;
+    }
 }
@@ -87,6 +87,23 @@ public abstract class ItemGroupMixin implements ClientItemGroupExtension {
         this.polymer$itemsSearch.clear();
     }
 
+    @Override
+    public void polymer$replaceStacksGroup(int start, int removed, List<ItemStack> added) {
+        polymer$replaceStacks(this.polymer$itemsGroup, start, removed, added);
+    }
+
+    @Override
+    public void polymer$replaceStacksSearch(int start, int removed, List<ItemStack> added) {
+        polymer$replaceStacks(this.polymer$itemsSearch, start, removed, added);
+    }
+
+    @Unique
+    private static void polymer$replaceStacks(List<ItemStack> list, int start, int removed, List<ItemStack> added) {
+        start = Math.min(start, list.size());
+        list.subList(start, Math.min(start + removed, list.size())).clear();
+        list.addAll(start, added);
+    }
+
     @Override
     public Collection<ItemStack> polymer$getStacksGroup() {
         return this.polymer$itemsGroup;
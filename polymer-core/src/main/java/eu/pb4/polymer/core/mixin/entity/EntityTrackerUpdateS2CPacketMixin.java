@@ -54,7 +54,8 @@ public class EntityTrackerUpdateS2CPacketMixin implements EntityTrackerUpdateS2C
     private List<DataTracker.SerializedEntry<?>> polymer$createEntries(List<DataTracker.SerializedEntry<?>> trackedValues) {
         var entity = EntityAttachedPacket.get(this, this.id);
         if (entity == null) {
-            return trackedValues != null ? new ArrayList<>(trackedValues) : null;
+            // Not attached to real entity (for example virtual elements), so there is nothing to remap
+            return trackedValues;
         }
 
         var entries = new ArrayList<DataTracker.SerializedEntry<?>>();
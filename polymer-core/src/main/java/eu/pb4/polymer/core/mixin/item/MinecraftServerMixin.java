@@ -1,6 +1,7 @@
 package eu.pb4.polymer.core.mixin.item;
 
 import eu.pb4.polymer.core.api.item.PolymerItemGroupUtils;
+import eu.pb4.polymer.core.impl.PolymerImplUtils;
 import eu.pb4.polymer.core.impl.networking.entry.PolymerBlockStateEntry;
 import net.minecraft.server.MinecraftServer;
 import org.spongepowered.asm.mixin.Mixin;
@@ -18,12 +19,14 @@ public class MinecraftServerMixin {
     @Inject(method = "runServer", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/MinecraftServer;createMetadata()Lnet/minecraft/server/ServerMetadata;", ordinal = 0))
     private void polymerCore$beforeStartTicking(CallbackInfo info) {
         PolymerBlockStateEntry.CACHE.clear();
+        PolymerImplUtils.clearEnchantmentCache();
         PolymerItemGroupUtils.invalidateItemGroupCache();
     }
 
     @Inject(method = "shutdown", at = @At("TAIL"))
     private void polymerCore$shutdown(CallbackInfo info) {
         PolymerBlockStateEntry.CACHE.clear();
+        PolymerImplUtils.clearEnchantmentCache();
         PolymerItemGroupUtils.invalidateItemGroupCache();
     }
 }
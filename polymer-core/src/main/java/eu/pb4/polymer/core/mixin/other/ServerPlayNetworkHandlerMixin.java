@@ -3,6 +3,9 @@ package eu.pb4.polymer.core.mixin.other;
 import eu.pb4.polymer.core.api.block.BlockMapper;
 import eu.pb4.polymer.core.impl.ClientMetadataKeys;
 import eu.pb4.polymer.core.impl.interfaces.PolymerPlayNetworkHandlerExtension;
+import eu.pb4.polymer.core.impl.networking.PendingBlockUpdates;
+import eu.pb4.polymer.core.impl.networking.payloads.s2c.PolymerItemGroupContentAddS2CPayload;
+import eu.pb4.polymer.core.impl.networking.payloads.s2c.PolymerItemGroupDefineS2CPayload;
 import eu.pb4.polymer.networking.api.PolymerNetworking;
 import eu.pb4.polymer.networking.api.server.PolymerServerNetworking;
 import net.minecraft.nbt.NbtByte;
@@ -11,6 +14,7 @@ import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.network.ConnectedClientData;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.Identifier;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
@@ -18,8 +22,8 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
 
 @Mixin(ServerPlayNetworkHandler.class)
 public abstract class ServerPlayNetworkHandlerMixin implements PolymerPlayNetworkHandlerExtension {
@@ -30,7 +34,11 @@ public abstract class ServerPlayNetworkHandlerMixin implements PolymerPlayNetwor
     @Unique
     private BlockMapper polymer$blockMapper;
     @Unique
-    private final List<Runnable> polymer$afterSequence = new ArrayList<>();
+    private final PendingBlockUpdates polymer$pendingBlockUpdates = new PendingBlockUpdates();
+    @Unique
+    private final Map<Identifier, PolymerItemGroupContentAddS2CPayload> polymer$syncedItemGroupContents = new HashMap<>();
+    @Unique
+    private final Map<Identifier, PolymerItemGroupDefineS2CPayload> polymer$syncedItemGroupDefinitions = new HashMap<>();
 
     @Shadow
     public abstract ServerPlayerEntity getPlayer();
@@ -56,14 +64,17 @@ public abstract class ServerPlayNetworkHandlerMixin implements PolymerPlayNetwor
         this.polymer$blockMapper = mapper;
     }
 
+    @Inject(method = "tick", at = @At("HEAD"))
+    private void polymer$sendBlockUpdates(CallbackInfo ci) {
+        // Otherwise they are sent right after sequence acknowledgement
+        if (this.sequence == -1) {
+            this.polymer$pendingBlockUpdates.send((ServerPlayNetworkHandler) (Object) this);
+        }
+    }
+
     @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/network/ServerPlayNetworkHandler;sendPacket(Lnet/minecraft/network/packet/Packet;)V", ordinal = 0, shift = At.Shift.AFTER))
     private void polymer$sendSequencePackets(CallbackInfo ci) {
-        if (!this.polymer$afterSequence.isEmpty()) {
-            for (var entry : this.polymer$afterSequence) {
-                entry.run();
-            }
-            this.polymer$afterSequence.clear();
-        }
+        this.polymer$pendingBlockUpdates.send((ServerPlayNetworkHandler) (Object) this);
     }
 
     @Override
@@ -77,11 +88,17 @@ public abstract class ServerPlayNetworkHandlerMixin implements PolymerPlayNetwor
     }
 
     @Override
-    public void polymer$delayAfterSequence(Runnable runnable) {
-        if (this.sequence == -1) {
-            runnable.run();
-        } else {
-            this.polymer$afterSequence.add(runnable);
-        }
+    public PendingBlockUpdates polymer$getPendingBlockUpdates() {
+        return this.polymer$pendingBlockUpdates;
+    }
+
+    @Override
+    public Map<Identifier, PolymerItemGroupContentAddS2CPayload> polymer$getSyncedItemGroupContents() {
+        return this.polymer$syncedItemGroupContents;
+    }
+
+    @Override
+    public Map<Identifier, PolymerItemGroupDefineS2CPayload> polymer$getSyncedItemGroupDefinitions() {
+        return this.polymer$syncedItemGroupDefinitions;
     }
 }
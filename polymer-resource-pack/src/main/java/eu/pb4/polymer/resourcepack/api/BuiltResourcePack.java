@@ -0,0 +1,15 @@
+package eu.pb4.polymer.resourcepack.api;
+
+import java.nio.file.Path;
+
+/**
+ * Information about resource pack file created by {@link ResourcePackCreator}.
+ * Hash is computed while writing it, so there is no need to read whole file again.
+ *
+ * @param path Path of the resource pack file
+ * @param sha1 Hex encoded SHA-1 hash of the file
+ * @param size Size of the file in bytes
+ * @param lastModified Modification time (in milliseconds) of the file, when hash was computed
+ */
+public record BuiltResourcePack(Path path, String sha1, long size, long lastModified) {
+}
@@ -132,6 +132,15 @@ public final class PolymerResourcePackUtils {
         return PolymerResourcePackImpl.DEFAULT_PATH;
     }
 
+    /**
+     * Returns information (including hash) about last resource pack built by polymer.
+     * It's already updated when {@link #RESOURCE_PACK_FINISHED_EVENT} is invoked.
+     */
+    @Nullable
+    public static BuiltResourcePack getLastBuiltPack() {
+        return INSTANCE.getLastBuiltPack();
+    }
+
     public static UUID getMainUuid() {
         return PolymerResourcePackImpl.MAIN_UUID;
     }
@@ -30,5 +30,16 @@ public interface ResourcePackBuilder {
     byte[] getDataOrSource(String path);
 
     boolean addAssetsSource(String modId);
+    /**
+     * Adds converter applied to every file while writing the pack. Returning null removes the file.
+     * These converters are called one file at a time, from the thread writing the pack.
+     */
     void addWriteConverter(BiFunction<String, byte[], @Nullable byte[]> converter);
+
+    /**
+     * Adds converter applied only to files matching provided glob pattern (for example {@code assets/*}{@code /shaders/**.json}),
+     * where {@code *} doesn't cross directories, {@code **} does and {@code {a,b}} matches any of alternatives.
+     * Converters can run in parallel for different files, so they need to be thread safe.
+     */
+    void addWriteConverter(String pathGlob, BiFunction<String, byte[], @Nullable byte[]> converter);
 }
@@ -10,8 +10,6 @@ import eu.pb4.polymer.resourcepack.impl.generation.DefaultRPBuilder;
 import eu.pb4.polymer.resourcepack.impl.generation.PolymerArmorModelImpl;
 import eu.pb4.polymer.resourcepack.impl.generation.PolymerModelDataImpl;
 import eu.pb4.polymer.resourcepack.mixin.LayerAccessor;
-import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
-import it.unimi.dsi.fastutil.ints.IntSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenCustomHashMap;
 import it.unimi.dsi.fastutil.objects.Object2ObjectOpenCustomHashMap;
@@ -40,19 +38,25 @@ public final class ResourcePackCreator {
     public final SimpleEvent<Runnable> finishedEvent = new SimpleEvent<>();
     public final SimpleEvent<Consumer<ResourcePackBuilder>> afterInitialCreationEvent = new SimpleEvent<>();
     private final Map<Item, List<PolymerModelData>> items = new Object2ObjectOpenCustomHashMap<>(CommonImplUtils.IDENTITY_HASH);
+    /**
+     * Unmodifiable views of model lists, created once so lookups (done while encoding items) don't allocate
+     */
+    private final Map<Item, List<PolymerModelData>> itemsView = new Object2ObjectOpenCustomHashMap<>(CommonImplUtils.IDENTITY_HASH);
+    private final Map<Item, List<PolymerModelData>> allItemsView = Collections.unmodifiableMap(this.itemsView);
     private final Object2IntMap<Item> itemIds = new Object2IntOpenCustomHashMap<>(CommonImplUtils.IDENTITY_HASH);
     private final Map<Item, Map<Identifier, PolymerModelData>> itemModels = new Object2ObjectOpenCustomHashMap<>(CommonImplUtils.IDENTITY_HASH);
     private final Map<Item, List<ItemOverride>> itemOverrides = new Object2ObjectOpenCustomHashMap<>(CommonImplUtils.IDENTITY_HASH);
 
     private final Set<String> modIds = new HashSet<>();
     private final Set<String> modIdsNoCopy = new HashSet<>();
-    private final IntSet takenArmorColors = new IntOpenHashSet();
     private final Map<Identifier, PolymerArmorModel> armorModelMap = new HashMap<>();
     private final int cmdOffset;
     private int armorColor = 0;
     private Text packDescription = null;
     private byte[] packIcon = null;
     private final Set<Path> sourcePaths = new HashSet<>();
+    @Nullable
+    private BuiltResourcePack lastBuiltPack = null;
 
     public static ResourcePackCreator create() {
         return new ResourcePackCreator(0);
@@ -71,10 +75,11 @@ public final class ResourcePackCreator {
      * @return PolymerModelData with data about this model
      */
     public PolymerModelData requestModel(Item vanillaItem, Identifier modelPath) {
-        var map = this.itemModels.computeIfAbsent(vanillaItem, (x) -> new Object2ObjectOpenHashMap<>());
+        var map = this.itemModels.get(vanillaItem);
+        var model = map != null ? map.get(modelPath) : null;
 
-        if (map.containsKey(modelPath)) {
-            return map.get(modelPath);
+        if (model != null) {
+            return model;
         } else {
             return this.forceDefineModel(vanillaItem, this.itemIds.getInt(vanillaItem), modelPath, true);
         }
@@ -105,7 +110,12 @@ public final class ResourcePackCreator {
     public PolymerModelData forceDefineModel(Item vanillaItem, int customModelData, Identifier modelPath, boolean respectOffset) {
         var map = this.itemModels.computeIfAbsent(vanillaItem, (x) -> new Object2ObjectOpenHashMap<>());
 
-        var cmdInfoList = this.items.computeIfAbsent(vanillaItem, (x) -> new ArrayList<>());
+        var cmdInfoList = this.items.get(vanillaItem);
+        if (cmdInfoList == null) {
+            cmdInfoList = new ArrayList<>();
+            this.items.put(vanillaItem, cmdInfoList);
+            this.itemsView.put(vanillaItem, Collections.unmodifiableList(cmdInfoList));
+        }
         var cmdInfo = new PolymerModelDataImpl(vanillaItem, customModelData + (respectOffset ? this.cmdOffset : 0), modelPath);
         cmdInfoList.add(cmdInfo);
         this.itemIds.put(vanillaItem, Math.max(this.itemIds.getInt(vanillaItem), customModelData + 1));
@@ -128,7 +138,6 @@ public final class ResourcePackCreator {
             var model = new PolymerArmorModelImpl(color, modelPath, List.of(new ArmorMaterial.Layer(modelPath)));
 
             this.armorModelMap.put(modelPath, model);
-            this.takenArmorColors.add(color);
             return model;
         }
     }
@@ -185,7 +194,9 @@ public final class ResourcePackCreator {
      * Returns true if color is taken
      */
     public boolean isColorTaken(int color) {
-        return takenArmorColors.contains(color & 0xFFFFFF);
+        // Colors are given out sequentially (see requestArmor), so it's enough to check if it's within given out range
+        var index = 0x1000000 - (color & 0xFFFFFF);
+        return (index & 1) == 0 && index >= 2 && index <= this.armorColor * 2;
     }
 
     /**
@@ -196,7 +207,7 @@ public final class ResourcePackCreator {
      * @return An unmodifiable list of models
      */
     public List<PolymerModelData> getModelsFor(Item item) {
-        return Collections.unmodifiableList(items.getOrDefault(item, Collections.emptyList()));
+        return this.itemsView.getOrDefault(item, Collections.emptyList());
     }
 
     /**
@@ -206,7 +217,7 @@ public final class ResourcePackCreator {
      * @return An unmodifiable list of models
      */
     public Map<Item, List<PolymerModelData>> getAllItemModels() {
-        return Collections.unmodifiableMap(items);
+        return this.allItemsView;
     }
 
     /**
@@ -256,6 +267,15 @@ public final class ResourcePackCreator {
         return packIcon;
     }
 
+    /**
+     * Returns information about last resource pack file created by this creator.
+     * It's already updated when {@link #finishedEvent} is invoked.
+     */
+    @Nullable
+    public BuiltResourcePack getLastBuiltPack() {
+        return this.lastBuiltPack;
+    }
+
     public boolean isEmpty() {
         return this.items.isEmpty() && this.modIds.isEmpty() && this.armorModelMap.isEmpty() && this.creationEvent.isEmpty();
     }
@@ -335,6 +355,7 @@ public final class ResourcePackCreator {
 
         status.accept("action:build");
         successful = builder.buildResourcePack().get() && successful;
+        this.lastBuiltPack = builder.getBuiltPack();
 
         status.accept("action:done");
         this.finishedEvent.invoke(Runnable::run);
@@ -6,9 +6,8 @@ import eu.pb4.polymer.common.impl.CompatStatus;
 import net.fabricmc.loader.api.FabricLoader;
 
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.UUID;
+import java.util.*;
+import java.util.stream.Collectors;
 
 public class PolymerResourcePackImpl {
     public static final boolean FORCE_REQUIRE;
@@ -19,6 +18,8 @@ public class PolymerResourcePackImpl {
     public static final List<String> INCLUDE_ZIPS;
     public static final UUID MAIN_UUID;
     public static final Path DEFAULT_PATH;
+    public static final int COMPRESSION_LEVEL;
+    public static final Set<String> STORED_EXTENSIONS;
 
 
     static {
@@ -39,6 +40,10 @@ public class PolymerResourcePackImpl {
         INCLUDE_MOD_IDS = config.includeModAssets;
 
         INCLUDE_ZIPS = config.includeZips;
+
+        COMPRESSION_LEVEL = Math.clamp(config.compressionLevel, -1, 9);
+
+        STORED_EXTENSIONS = config.storedFileExtensions.stream().map(x -> x.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
     }
 
 
@@ -68,5 +73,11 @@ public class PolymerResourcePackImpl {
         public String _c7 = "Path used for creation of default resourcepack!";
         @SerializedName("resource_pack_location")
         public String resourcePackPath = "polymer/resource_pack.zip";
+        public String _c8 = "Compression level (0-9, -1 for default) used for files that aren't already compressed!";
+        @SerializedName("compression_level")
+        public int compressionLevel = -1;
+        public String _c9 = "Extensions of already compressed files, that are stored in resource pack without compression!";
+        @SerializedName("stored_file_extensions")
+        public List<String> storedFileExtensions = List.of("png", "ogg");
     }
 }
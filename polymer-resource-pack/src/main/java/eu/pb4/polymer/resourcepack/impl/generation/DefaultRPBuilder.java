@@ -1,15 +1,19 @@
 package eu.pb4.polymer.resourcepack.impl.generation;
 
 import com.google.gson.*;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
 import com.mojang.serialization.JsonOps;
 import eu.pb4.polymer.common.api.PolymerCommonUtils;
 import eu.pb4.polymer.common.api.events.SimpleEvent;
 import eu.pb4.polymer.common.impl.CommonImpl;
 import eu.pb4.polymer.common.impl.CommonImplUtils;
 import eu.pb4.polymer.resourcepack.api.AssetPaths;
+import eu.pb4.polymer.resourcepack.api.BuiltResourcePack;
 import eu.pb4.polymer.resourcepack.api.PolymerArmorModel;
 import eu.pb4.polymer.resourcepack.api.PolymerModelData;
 import eu.pb4.polymer.resourcepack.impl.ArmorTextureMetadata;
+import eu.pb4.polymer.resourcepack.impl.PolymerResourcePackImpl;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
 import net.minecraft.SharedConstants;
@@ -23,15 +27,22 @@ import javax.imageio.ImageIO;
 import java.awt.*;
 import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.FileSystems;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.List;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -42,17 +53,37 @@ import static eu.pb4.polymer.resourcepack.api.AssetPaths.armorTexture;
 @ApiStatus.Internal
 public class DefaultRPBuilder implements InternalRPBuilder {
     public static final Gson GSON = CommonImpl.GSON;
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = GSON.getAdapter(JsonElement.class);
     public final SimpleEvent<Consumer<List<String>>> buildEvent = new SimpleEvent<>();
     private final Map<Item, JsonArray[]> customModels = new HashMap<>();
-    private final TreeMap<String, byte[]> fileMap = new TreeMap<>();
+    private final StagedFileMap fileMap = new StagedFileMap();
     private final List<PolymerArmorModel> armors = new ArrayList<>();
     private final Path outputPath;
+    /**
+     * Stores fingerprint of contents used to create current pack, so it can be reused if nothing changed.
+     * Packs with write converters are always rebuilt.
+     */
+    private final Path buildCachePath;
     private final List<ModContainer> modsList = new ArrayList<>();
     private final Map<Identifier, List<PolymerModelData>> customModelData = new HashMap<>();
     private final Map<String, JsonArray> atlasDefinitions = new HashMap<>();
     private final List<Path> rootPaths = new ArrayList<>();
-    private final List<BiFunction<String, byte[], @Nullable byte[]>> converters = new ArrayList<>();
+    /**
+     * Index of files provided by source roots, with first root providing a path taking priority.
+     * It's extended with new roots as they are added, instead of checking every root on each lookup.
+     */
+    private final Map<String, SourceEntry> sourceIndex = new HashMap<>();
+    /**
+     * Decoded source images, reused within single build and cleared once it finishes
+     */
+    private final Map<SourceEntry, BufferedImage> decodedSourceImages = new ConcurrentHashMap<>();
+    private int indexedRoots;
+    private static final int MAX_PENDING_FILES = 512;
+    private static final long MAX_PENDING_BYTES = 64 * 1024 * 1024;
+    private final List<WriteConverter> converters = new ArrayList<>();
     private boolean hasVanilla;
+    @Nullable
+    private BuiltResourcePack builtPack;
 
     public DefaultRPBuilder(Path outputPath) {
         try {
@@ -62,16 +93,7 @@ public class DefaultRPBuilder implements InternalRPBuilder {
             e.printStackTrace();
         }
         this.outputPath = outputPath;
-
-        try {
-            if (outputPath.toFile().exists()) {
-                Files.deleteIfExists(outputPath);
-            }
-        } catch (Exception e) {
-            CommonImpl.LOGGER.warn("Couldn't remove " + outputPath + " file!");
-            e.printStackTrace();
-        }
-
+        this.buildCachePath = outputPath.resolveSibling(outputPath.getFileName() + ".cache");
     }
 
     private static Path getSelfPath(String path) {
@@ -100,7 +122,7 @@ public class DefaultRPBuilder implements InternalRPBuilder {
 
     private boolean addAtlasFile(String path, byte[] data) {
         try {
-            var decode = JsonParser.parseString(new String(data, StandardCharsets.UTF_8));
+            var decode = JsonParser.parseReader(jsonReader(data));
 
             if (decode instanceof JsonObject obj) {
                 var list = obj.getAsJsonArray("sources");
@@ -221,7 +243,7 @@ public class DefaultRPBuilder implements InternalRPBuilder {
             var modelPath = AssetPaths.model(cmdInfo.modelPath().getNamespace(), cmdInfo.modelPath().getPath() + ".json");
 
             if (this.fileMap.containsKey(modelPath)) {
-                modelObject = JsonParser.parseString(new String(this.fileMap.get(modelPath), StandardCharsets.UTF_8)).getAsJsonObject();
+                modelObject = JsonParser.parseReader(jsonReader(this.fileMap.get(modelPath))).getAsJsonObject();
             }
 
             if (modelObject != null && modelObject.has("overrides")) {
@@ -289,15 +311,97 @@ public class DefaultRPBuilder implements InternalRPBuilder {
 
     @Override
     public void addWriteConverter(BiFunction<String, byte[], @Nullable byte[]> converter) {
-        this.converters.add(converter);
+        this.converters.add(new WriteConverter(null, converter, false));
+    }
+
+    @Override
+    public void addWriteConverter(String pathGlob, BiFunction<String, byte[], @Nullable byte[]> converter) {
+        this.converters.add(new WriteConverter(globToPattern(pathGlob), converter, true));
+    }
+
+    private static Pattern globToPattern(String glob) {
+        var builder = new StringBuilder(glob.length() * 2);
+        var inGroup = false;
+        for (int i = 0; i < glob.length(); i++) {
+            var c = glob.charAt(i);
+            switch (c) {
+                case '*' -> {
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        builder.append(".*");
+                        i++;
+                    } else {
+                        builder.append("[^/]*");
+                    }
+                }
+                case '?' -> builder.append("[^/]");
+                case '{' -> {
+                    builder.append("(?:");
+                    inGroup = true;
+                }
+                case '}' -> {
+                    builder.append(inGroup ? ")" : "\\}");
+                    inGroup = false;
+                }
+                case ',' -> builder.append(inGroup ? "|" : ",");
+                default -> {
+                    if ("\\.[]()+^$|".indexOf(c) != -1) {
+                        builder.append('\\');
+                    }
+                    builder.append(c);
+                }
+            }
+        }
+        return Pattern.compile(builder.toString());
+    }
+
+    private List<WriteConverter> getConverters(String path) {
+        if (this.converters.isEmpty()) {
+            return List.of();
+        }
+
+        var list = new ArrayList<WriteConverter>(this.converters.size());
+        for (var converter : this.converters) {
+            if (converter.matches(path)) {
+                list.add(converter);
+            }
+        }
+        return list;
+    }
+
+    private static boolean isParallel(List<WriteConverter> converters) {
+        for (var converter : converters) {
+            if (!converter.parallel()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private static byte[] applyConverters(List<WriteConverter> converters, String path, byte[] data) {
+        for (var converter : converters) {
+            try {
+                var converted = converter.converter().apply(path, data);
+                if (converted == null) {
+                    return null;
+                }
+                data = converted;
+            } catch (Throwable e) {
+                // Single broken converter shouldn't prevent whole pack from being written, so it's skipped
+                CommonImpl.LOGGER.error("Error occurred while converting " + path + "! Skipping this converter...", e);
+            }
+        }
+        return data;
     }
 
     @Nullable
     private byte[] getSourceData(String path) {
         try {
-            var stream = getSourceStream(path);
-            if (stream != null) {
-                return stream.readAllBytes();
+            var entry = this.getSourceEntry(path);
+            if (entry != null) {
+                try (var stream = Files.newInputStream(entry.path())) {
+                    return entry.size() < Integer.MAX_VALUE ? stream.readNBytes((int) entry.size()) : stream.readAllBytes();
+                }
             }
         } catch (Throwable e) {
             CommonImpl.LOGGER.warn("Error occurred while getting data from vanilla jar!", e);
@@ -306,25 +410,54 @@ public class DefaultRPBuilder implements InternalRPBuilder {
     }
 
     @Nullable
-    private InputStream getSourceStream(String path) {
-        try {
-            if (!this.hasVanilla && path.startsWith("assets/minecraft/")) {
-                this.rootPaths.add(PolymerCommonUtils.getClientJarRoot());
-                this.hasVanilla = true;
-            }
+    private synchronized SourceEntry getSourceEntry(String path) {
+        if (!this.hasVanilla && path.startsWith("assets/minecraft/")) {
+            this.rootPaths.add(PolymerCommonUtils.getClientJarRoot());
+            this.hasVanilla = true;
+        }
 
-            for (var rootPath : this.rootPaths) {
-                var entry = rootPath.resolve(path);
+        if (this.indexedRoots != this.rootPaths.size()) {
+            // Roots are only ever appended, so new ones can't override already indexed paths
+            var indexes = this.rootPaths.subList(this.indexedRoots, this.rootPaths.size()).parallelStream()
+                    .map(DefaultRPBuilder::indexSourceRoot).toList();
+            this.indexedRoots = this.rootPaths.size();
 
-                if (Files.exists(entry)) {
-                    return Files.newInputStream(entry);
+            for (var index : indexes) {
+                for (var entry : index.entrySet()) {
+                    this.sourceIndex.putIfAbsent(entry.getKey(), entry.getValue());
                 }
             }
-        } catch (Exception e) {
-            CommonImpl.LOGGER.warn("Error occurred while getting data from vanilla jar!", e);
         }
 
-        return null;
+        return this.sourceIndex.get(path);
+    }
+
+    private static Map<String, SourceEntry> indexSourceRoot(Path root) {
+        var map = new HashMap<String, SourceEntry>();
+        try {
+            var separator = root.getFileSystem().getSeparator();
+            Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        var path = root.relativize(file).toString();
+                        if (!separator.equals("/")) {
+                            path = path.replace(separator, "/");
+                        }
+                        map.put(path, new SourceEntry(file, attrs.size()));
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (Throwable e) {
+            CommonImpl.LOGGER.warn("Couldn't index assets of " + root + "!", e);
+        }
+        return map;
     }
 
     @Override
@@ -375,51 +508,43 @@ public class DefaultRPBuilder implements InternalRPBuilder {
 
                 boolean bool = true;
                 {
-                    var jsonObject = new JsonObject();
                     var sorted = new ArrayList<>(this.customModelData.entrySet());
                     sorted.sort(Map.Entry.comparingByKey());
-                    for (var entry : sorted) {
-                        var jsonObject2 = new JsonObject();
-                        for (var model : entry.getValue()) {
-                            jsonObject2.addProperty(CommonImplUtils.shortId(model.modelPath()), model.value());
-                        }
-
-                        jsonObject.add(CommonImplUtils.shortId(entry.getKey()), jsonObject2);
-                    }
 
-                    this.fileMap.put("assets/polymer/items.json", GSON.toJson(jsonObject).getBytes(StandardCharsets.UTF_8));
+                    this.fileMap.put("assets/polymer/items.json", writeJson((writer) -> {
+                        writer.beginObject();
+                        for (var entry : sorted) {
+                            writer.name(CommonImplUtils.shortId(entry.getKey())).beginObject();
+                            for (var model : entry.getValue()) {
+                                writer.name(CommonImplUtils.shortId(model.modelPath())).value(model.value());
+                            }
+                            writer.endObject();
+                        }
+                        writer.endObject();
+                    }));
                 }
 
 
                 for (var key : this.customModels.keySet()) {
                     Identifier id = Registries.ITEM.getId(key);
                     try {
-                        JsonObject modelObject;
-
                         String baseModelPath;
                         {
                             Identifier itemId = Registries.ITEM.getId(key);
                             baseModelPath = "assets/" + itemId.getNamespace() + "/models/item/" + itemId.getPath() + ".json";
                         }
 
-                        modelObject = JsonParser.parseString(new String(this.getDataOrSource(baseModelPath), StandardCharsets.UTF_8)).getAsJsonObject();
-
-
-                        if (modelObject.has("overrides")) {
-                            this.getCustomModels(key, OverridePlace.EXISTING).addAll(modelObject.getAsJsonArray("overrides"));
+                        var baseModel = this.getDataOrSource(baseModelPath);
+                        if (baseModel == null) {
+                            throw new FileNotFoundException(baseModelPath);
                         }
 
-                        var jsonArray = new JsonArray();
-
-                        for (var models : this.customModels.get(key)) {
-                            if (models != null) {
-                                jsonArray.addAll(models);
+                        var models = this.customModels.get(key);
+                        this.fileMap.put(baseModelPath, writeJson((writer) -> {
+                            try (var reader = jsonReader(baseModel)) {
+                                mergeModelOverrides(reader, writer, models);
                             }
-                        }
-
-                        modelObject.add("overrides", jsonArray);
-
-                        this.fileMap.put(baseModelPath, modelObject.toString().getBytes(StandardCharsets.UTF_8));
+                        }));
                     } catch (Exception e) {
                         CommonImpl.LOGGER.error("Something went wrong while saving model of " + id);
                         e.printStackTrace();
@@ -428,16 +553,18 @@ public class DefaultRPBuilder implements InternalRPBuilder {
                 }
 
                 for (var entry : this.atlasDefinitions.entrySet()) {
-                    var obj = new JsonObject();
-                    obj.add("sources", entry.getValue());
-                    this.fileMap.put(entry.getKey(), obj.toString().getBytes(StandardCharsets.UTF_8));
+                    this.fileMap.put(entry.getKey(), writeJson((writer) -> {
+                        writer.beginObject().name("sources");
+                        JSON_ELEMENT_ADAPTER.write(writer, entry.getValue());
+                        writer.endObject();
+                    }));
                 }
 
                 if (!this.armors.isEmpty()) {
                     credits.add("Armor texture support is based on https://github.com/Ancientkingg/fancyPants");
                     credits.add("");
 
-                    var list = new ArrayList<ArmorData>();
+                    var inputs = new ArrayList<ArmorInput>();
 
                     int globalScale = 1;
 
@@ -446,30 +573,19 @@ public class DefaultRPBuilder implements InternalRPBuilder {
                     for (var entry : this.armors) {
                         armorDataMap.put(entry.color(), CommonImplUtils.shortId(entry.modelPath()));
                         try {
-                            var images = new BufferedImage[2];
+                            var textures = new byte[2][];
+                            var fromSource = new boolean[2];
                             var metadata = new ArmorTextureMetadata[2];
 
                             for (int i = 0; i <= 1; i++) {
-                                BufferedImage bi = null;
-
                                 {
                                     var path = "assets/" + entry.modelPath().getNamespace() + "/textures/models/armor/" + entry.modelPath().getPath() + "_layer_" + (i + 1) + ".png";
-                                    var data = this.fileMap.get(path);
+                                    textures[i] = this.fileMap.get(path);
 
-                                    if (data == null) {
-                                        try {
-                                            InputStream stream = this.getSourceStream(path);
-                                            if (stream != null) {
-                                                bi = ImageIO.read(stream);
-                                            }
-                                        } catch (Exception e) {
-                                            // silence!
-                                        }
-                                    } else {
-                                        bi = ImageIO.read(new ByteArrayInputStream(data));
+                                    if (textures[i] == null) {
+                                        textures[i] = this.getSourceData(path);
+                                        fromSource[i] = true;
                                     }
-
-                                    images[i] = bi;
                                 }
                                 {
                                     var path = AssetPaths.armorTexturePolymerMetadata(entry.modelPath(), i + 1);
@@ -477,7 +593,7 @@ public class DefaultRPBuilder implements InternalRPBuilder {
 
                                     if (data != null) {
                                         int finalI = i;
-                                        ArmorTextureMetadata.CODEC.decode(JsonOps.INSTANCE, JsonParser.parseString(new String(data))).result().ifPresentOrElse((r) -> metadata[finalI] = r.getFirst(), () -> metadata[finalI] = ArmorTextureMetadata.DEFAULT);
+                                        ArmorTextureMetadata.CODEC.decode(JsonOps.INSTANCE, JsonParser.parseReader(jsonReader(data))).result().ifPresentOrElse((r) -> metadata[finalI] = r.getFirst(), () -> metadata[finalI] = ArmorTextureMetadata.DEFAULT);
                                     } else {
                                         metadata[i] = ArmorTextureMetadata.DEFAULT;
                                     }
@@ -492,110 +608,56 @@ public class DefaultRPBuilder implements InternalRPBuilder {
                                     }
                                 }
                             }
-                            list.add(new ArmorData(entry.modelPath(), entry.color(), images, metadata));
+                            inputs.add(new ArmorInput(entry.modelPath(), entry.color(), textures, fromSource, metadata));
                         } catch (Throwable e) {
                             CommonImpl.LOGGER.error("Error occurred when creating " + entry.modelPath() + " armor texture!");
                             e.printStackTrace();
                         }
                     }
-                    list.sort(Comparator.comparing(e -> -e.color()));
+                    inputs.sort(Comparator.comparing(e -> -e.color()));
 
-                    this.fileMap.put("assets/polymer/armors.json", GSON.toJson(armorDataMap).getBytes(StandardCharsets.UTF_8));
+                    this.fileMap.put("assets/polymer/armors.json", writeJson((writer) -> {
+                        writer.beginObject();
+                        for (var entry : armorDataMap.entrySet()) {
+                            writer.name(String.valueOf(entry.getKey())).value(entry.getValue());
+                        }
+                        writer.endObject();
+                    }));
                     this.fileMap.put(armorTexture(vId("vanilla_leather"), 1), this.getSourceData(armorTexture(Identifier.of("leather"), 1)));
                     this.fileMap.put(armorOverlayTexture(vId("vanilla_leather"), 1), this.getSourceData(armorOverlayTexture(vId("leather"), 1)));
                     this.fileMap.put(armorTexture(vId("vanilla_leather"), 2), this.getSourceData(armorTexture(Identifier.of("leather"), 2)));
                     this.fileMap.put(armorOverlayTexture(vId("vanilla_leather"), 2), this.getSourceData(armorOverlayTexture(vId("leather"), 2)));
-                    int[] width = new int[]{64 * globalScale, 64 * globalScale};
-                    int[] height = new int[]{32 * globalScale, 32 * globalScale};
-
-                    for (var entry : new ArrayList<>(list)) {
-                        for (int i = 0; i <= 1; i++) {
-                            var image = entry.images()[i];
-                            var metadata = entry.metadata()[i];
-
-                            if (image != null) {
-                                var scale = globalScale / metadata.scale();
-                                var newHeight = image.getHeight() * scale;
-                                var newWidth = image.getWidth() * scale;
-
-                                var check = (double) newWidth / (64 * globalScale);
-                                if (check != Math.floor(check)) {
-                                    CommonImpl.LOGGER.warn("Invalid texture size for armor " + entry.identifier() + " (" + i + ")! Skipping...");
-                                    list.remove(entry);
-                                    continue;
-                                }
-
-                                height[i] = Math.max(height[i], newHeight);
-                                width[i] += newWidth;
-                            }
-
-                        }
-                    }
-
-                    var image = new BufferedImage[]{new BufferedImage(width[0], height[0], BufferedImage.TYPE_INT_ARGB), new BufferedImage(width[1], height[1], BufferedImage.TYPE_INT_ARGB)};
-
-                    int[] cWidth = new int[]{64 * globalScale, 64 * globalScale};
-
-                    var graphics = new Graphics[]{image[0].getGraphics(), image[1].getGraphics()};
 
                     try {
-                        for (int i = 0; i <= 1; i++) {
-                            {
-                                //noinspection ConstantConditions
-                                var tex = ImageIO.read(this.getSourceStream(armorTexture(vId("leather"), i + 1)));
-                                graphics[i].drawImage(tex, 0, 0, tex.getWidth() * globalScale, tex.getHeight() * globalScale, null);
-                            }
-                            {
-                                //noinspection ConstantConditions
-                                var tex = ImageIO.read(this.getSourceStream(armorOverlayTexture(vId("leather"), i + 1)));
-                                graphics[i].drawImage(tex, 0, 0, tex.getWidth() * globalScale, tex.getHeight() * globalScale, null);
-                            }
-                            graphics[i].setColor(Color.WHITE);
-                            graphics[i].drawRect(0, 1, 0, 0);
-                        }
-
-
-                        for (var entry : list) {
-                            for (int i = 0; i <= 1; i++) {
-                                var metadata = entry.metadata()[i];
-                                var scale = globalScale / metadata.scale();
-                                var tmpImage = entry.images()[i];
-
-                                if (tmpImage == null) {
-                                    continue;
-                                }
-                                graphics[i].drawImage(tmpImage, cWidth[i], 0, tmpImage.getWidth() * scale, tmpImage.getHeight() * scale, null);
-
-                                graphics[i].setColor(new Color(entry.color() | 0xFF000000));
-                                graphics[i].drawRect(cWidth[i], 0, 0, 0);
-
-                                if ((metadata.frames() != 0 && metadata.animationSpeed() != 0) || metadata.interpolate()) {
-                                    graphics[i].setColor(new Color(metadata.frames(), metadata.animationSpeed(), metadata.interpolate() ? 1 : 0));
-                                    graphics[i].drawRect(cWidth[i] + 1, 0, 0, 0);
-                                }
-
-                                if (metadata.emissivity() != 0) {
-                                    graphics[i].setColor(new Color(metadata.emissivity(), 0, 0));
-                                    graphics[i].drawRect(cWidth[i] + 2, 0, 0, 0);
-                                }
-
-                                cWidth[i] += tmpImage.getWidth() * scale;
+                        // Composited textures only depend on inputs, so they can be reused from previous builds
+                        var inputHash = this.hashArmorInputs(inputs, globalScale);
+                        // Only last result is kept, with hash of its inputs stored next to it
+                        var cacheDir = CommonImpl.getGameDir().resolve("polymer/cached_armor_textures");
+                        var cachedHash = cacheDir.resolve("inputs.sha256");
+                        var cached = new Path[]{cacheDir.resolve("layer_1.png"), cacheDir.resolve("layer_2.png")};
+
+                        byte[][] textures;
+                        if (Files.isRegularFile(cachedHash) && Files.isRegularFile(cached[0]) && Files.isRegularFile(cached[1])
+                                && inputHash.equals(Files.readString(cachedHash).trim())) {
+                            textures = new byte[][]{Files.readAllBytes(cached[0]), Files.readAllBytes(cached[1])};
+                        } else {
+                            textures = this.createArmorTextures(inputs, globalScale);
+                            try {
+                                Files.createDirectories(cacheDir);
+                                Files.deleteIfExists(cachedHash);
+                                Files.write(cached[0], textures[0]);
+                                Files.write(cached[1], textures[1]);
+                                Files.writeString(cachedHash, inputHash);
+                            } catch (Throwable e) {
+                                CommonImpl.LOGGER.warn("Couldn't cache armor textures!", e);
                             }
                         }
 
+                        var out = new ByteArrayOutputStream();
+                        ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), "png", out);
                         for (int i = 0; i <= 1; i++) {
-                            graphics[i].dispose();
-
-                            {
-                                var out = new ByteArrayOutputStream();
-                                ImageIO.write(image[i], "png", out);
-                                this.fileMap.put(armorTexture(vId("leather"), i + 1), out.toByteArray());
-                            }
-                            {
-                                var out = new ByteArrayOutputStream();
-                                ImageIO.write(new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB), "png", out);
-                                this.fileMap.put(armorOverlayTexture(vId("leather"), i + 1), out.toByteArray());
-                            }
+                            this.fileMap.put(armorTexture(vId("leather"), i + 1), textures[i]);
+                            this.fileMap.put(armorOverlayTexture(vId("leather"), i + 1), out.toByteArray());
                         }
                     } catch (Throwable e) {
                         CommonImpl.LOGGER.error("Error occurred when creating armor texture!");
@@ -630,56 +692,534 @@ public class DefaultRPBuilder implements InternalRPBuilder {
                 return bool;
             } catch (Exception e) {
                 CommonImpl.LOGGER.error("Something went wrong while creating resource pack!", e);
+                try {
+                    Files.deleteIfExists(this.buildCachePath);
+                    Files.deleteIfExists(this.outputPath);
+                } catch (Throwable e2) {
+                    CommonImpl.LOGGER.warn("Couldn't remove " + this.outputPath + " file!");
+                }
                 return false;
+            } finally {
+                this.decodedSourceImages.clear();
+                try {
+                    this.fileMap.close();
+                } catch (Throwable e) {
+                    CommonImpl.LOGGER.warn("Couldn't remove temporary resource pack files!", e);
+                }
             }
         });
     }
 
-    private boolean writeSingleZip() {
-        try (var outputStream = new ZipOutputStream(new FileOutputStream(this.outputPath.toFile()))) {
-            for (var path : this.fileMap.keySet().toArray(new String[0])) {
-                var split = new ArrayList<>(List.of(path.split("/")));
-                while (split.size() > 1) {
-                    split.remove(split.size() - 1);
+    /**
+     * Hashes final contents of the pack, together with everything else that can change the output.
+     */
+    private String computeFingerprint() throws NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256");
+        digest.update(CommonImpl.VERSION.getBytes(StandardCharsets.UTF_8));
+        digest.update((PolymerResourcePackImpl.COMPRESSION_LEVEL + "/" + new TreeSet<>(PolymerResourcePackImpl.STORED_EXTENSIONS)).getBytes(StandardCharsets.UTF_8));
+
+        var length = new byte[4];
+        for (var entry : this.fileMap.entries()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            var data = entry.getValue();
+            var size = data != null ? data.length : -1;
+            length[0] = (byte) (size >>> 24);
+            length[1] = (byte) (size >>> 16);
+            length[2] = (byte) (size >>> 8);
+            length[3] = (byte) size;
+            digest.update(length);
+            if (data != null) {
+                digest.update(data);
+            }
+        }
 
-                    this.fileMap.put(String.join("/", split) + "/", null);
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private boolean writeSingleZip() {
+        String fingerprint = null;
+        try {
+            // Output of converters can depend on things outside of pack (like config files), so it can't be reused safely
+            fingerprint = this.converters.isEmpty() ? this.computeFingerprint() : null;
+            if (fingerprint != null && Files.isRegularFile(this.outputPath) && Files.isRegularFile(this.buildCachePath)) {
+                // Cache file contains fingerprint of contents, followed by hash, size and modification time of resulting file.
+                // Last two are checked, so file replaced by something else isn't paired with outdated hash
+                var cache = Files.readAllLines(this.buildCachePath);
+                if (cache.size() >= 4 && fingerprint.equals(cache.get(0).trim())
+                        && Long.parseLong(cache.get(2).trim()) == Files.size(this.outputPath)
+                        && Long.parseLong(cache.get(3).trim()) == Files.getLastModifiedTime(this.outputPath).toMillis()) {
+                    CommonImpl.LOGGER.info("Resource pack contents didn't change, reusing existing " + this.outputPath.getFileName());
+                    this.builtPack = new BuiltResourcePack(this.outputPath, cache.get(1).trim(), Long.parseLong(cache.get(2).trim()), Long.parseLong(cache.get(3).trim()));
+                    return true;
                 }
+            }
+            Files.deleteIfExists(this.buildCachePath);
+        } catch (Throwable e) {
+            CommonImpl.LOGGER.warn("Couldn't check previous resource pack build!", e);
+        }
 
+        var sha1 = this.writeZipFile();
+
+        try {
+            if (sha1 != null) {
+                this.builtPack = new BuiltResourcePack(this.outputPath, sha1, Files.size(this.outputPath), Files.getLastModifiedTime(this.outputPath).toMillis());
+                if (fingerprint != null) {
+                    Files.writeString(this.buildCachePath, fingerprint + "\n" + sha1 + "\n" + this.builtPack.size() + "\n" + this.builtPack.lastModified());
+                }
+            } else {
+                Files.deleteIfExists(this.outputPath);
             }
+        } catch (Throwable e) {
+            CommonImpl.LOGGER.warn("Couldn't store resource pack build cache!", e);
+        }
 
+        return sha1 != null;
+    }
 
-            var sorted = new ArrayList<>(this.fileMap.entrySet());
-            sorted.sort(Map.Entry.comparingByKey());
-            for (var entry : sorted) {
-                var path = entry.getKey();
-                var outByte = entry.getValue();
+    @Override
+    @Nullable
+    public BuiltResourcePack getBuiltPack() {
+        return this.builtPack;
+    }
 
-                if (outByte != null) {
-                    for (var conv : converters) {
-                        outByte = conv.apply(path, outByte);
-                        if (outByte == null) {
-                            break;
-                        }
+    /**
+     * Writes the zip, hashing it along the way.
+     *
+     * @return SHA-1 of written file or null if it failed
+     */
+    @Nullable
+    private String writeZipFile() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            e.printStackTrace();
+            return null;
+        }
+
+        var hasParallelConverters = false;
+        for (var converter : this.converters) {
+            hasParallelConverters |= converter.parallel();
+        }
+
+        // Separate pool, so converters don't compete with other work done on common one
+        var executor = !hasParallelConverters ? null : Executors.newFixedThreadPool(Math.max(Runtime.getRuntime().availableProcessors() - 1, 1), (runnable) -> {
+            var thread = new Thread(runnable, "Polymer Resource Pack Converter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (var outputStream = new ZipOutputStream(new BufferedOutputStream(new DigestOutputStream(new FileOutputStream(this.outputPath.toFile()), digest), 64 * 1024))) {
+            outputStream.setLevel(PolymerResourcePackImpl.COMPRESSION_LEVEL);
+            // Files with only glob converters are converted in parallel, while being written in order.
+            // Ones matched by converters added without glob are converted on this thread, as these might not be thread safe.
+            // Amount of files waiting for conversion is limited, to not keep whole pack converted in memory
+            var pending = new ArrayDeque<PendingFile>();
+            long pendingBytes = 0;
+            // Keys are already sorted, so parent directories can be written right before first file inside them
+            var lastDirectory = "";
+            for (var entry : this.fileMap.entries()) {
+                var path = entry.getKey();
+                var data = entry.getValue();
+                var converters = data != null ? this.getConverters(path) : List.<WriteConverter>of();
+                var parallel = !converters.isEmpty() && isParallel(converters);
+
+                if (!parallel && pending.isEmpty()) {
+                    var converted = converters.isEmpty() ? data : applyConverters(converters, path, data);
+                    // Null returned by converter removes the file
+                    if (converted != null || converters.isEmpty()) {
+                        lastDirectory = writeFile(outputStream, path, converted, lastDirectory);
                     }
+                    continue;
+                }
+
+                var size = data != null ? data.length : 0;
+                if (parallel) {
+                    pending.add(new PendingFile(path, CompletableFuture.supplyAsync(() -> applyConverters(converters, path, data), executor), size, true));
+                } else if (converters.isEmpty()) {
+                    pending.add(new PendingFile(path, CompletableFuture.completedFuture(data), size, false));
+                } else {
+                    pending.add(new PendingFile(path, CompletableFuture.completedFuture(applyConverters(converters, path, data)), size, true));
+                }
+                pendingBytes += size;
+
+                while (pending.size() > MAX_PENDING_FILES || pendingBytes > MAX_PENDING_BYTES) {
+                    var file = pending.poll();
+                    pendingBytes -= file.size();
+                    lastDirectory = writePendingFile(outputStream, file, lastDirectory);
+                }
+            }
+
+            for (var file : pending) {
+                lastDirectory = writePendingFile(outputStream, file, lastDirectory);
+            }
+        } catch (Throwable e) {
+            e.printStackTrace();
+            return null;
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String writePendingFile(ZipOutputStream outputStream, PendingFile file, String lastDirectory) throws IOException {
+        var data = file.data().join();
+        if (data == null && file.converted()) {
+            // Removed by converter
+            return lastDirectory;
+        }
+        return writeFile(outputStream, file.path(), data, lastDirectory);
+    }
+
+    private static String writeFile(ZipOutputStream outputStream, String path, @Nullable byte[] data, String lastDirectory) throws IOException {
+        var directoryEnd = path.lastIndexOf('/');
+        var isDirectory = data == null && directoryEnd == path.length() - 1;
+
+        if (directoryEnd != -1) {
+            var directory = path.substring(0, directoryEnd + 1);
+            if (!directory.equals(lastDirectory)) {
+                writeDirectories(outputStream, directory, lastDirectory);
+                lastDirectory = directory;
+            }
+        }
+
+        if (!isDirectory) {
+            writeEntry(outputStream, path, data);
+        }
+        return lastDirectory;
+    }
+
+    private static boolean isStored(String path) {
+        var extension = path.lastIndexOf('.');
+        return extension != -1 && PolymerResourcePackImpl.STORED_EXTENSIONS.contains(path.substring(extension + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Writes entries for every level of directory, that isn't shared with previously written one.
+     */
+    private static void writeDirectories(ZipOutputStream outputStream, String directory, String lastDirectory) throws IOException {
+        var shared = 0;
+        var length = Math.min(directory.length(), lastDirectory.length());
+        for (int i = 0; i < length; i++) {
+            var c = directory.charAt(i);
+            if (c != lastDirectory.charAt(i)) {
+                break;
+            } else if (c == '/') {
+                shared = i + 1;
+            }
+        }
+
+        for (int i = shared; i < directory.length(); i++) {
+            if (directory.charAt(i) == '/') {
+                writeEntry(outputStream, directory.substring(0, i + 1), null);
+            }
+        }
+    }
+
+    private static void writeEntry(ZipOutputStream outputStream, String path, @Nullable byte[] data) throws IOException {
+        var zipEntry = new ZipEntry(path);
+        zipEntry.setTime(0);
+        if (data != null && isStored(path)) {
+            // Already compressed files don't get any smaller, so deflating them is just a waste of time
+            var crc = new CRC32();
+            crc.update(data);
+            zipEntry.setMethod(ZipEntry.STORED);
+            zipEntry.setSize(data.length);
+            zipEntry.setCompressedSize(data.length);
+            zipEntry.setCrc(crc.getValue());
+        }
+        outputStream.putNextEntry(zipEntry);
+        if (data != null) {
+            outputStream.write(data);
+        }
+        outputStream.closeEntry();
+    }
+
+    private static JsonReader jsonReader(byte[] data) {
+        var reader = new JsonReader(new InputStreamReader(new ByteArrayInputStream(data), StandardCharsets.UTF_8));
+        reader.setLenient(true);
+        return reader;
+    }
+
+    /**
+     * Writes json directly as UTF-8 bytes, without building intermediate tree or string.
+     */
+    private static byte[] writeJson(JsonWriterAction action) throws IOException {
+        var out = new ByteArrayOutputStream();
+        try (var writer = new JsonWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))) {
+            action.write(writer);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Copies model, while replacing its overrides with custom ones. Existing overrides are copied into
+     * {@link OverridePlace#EXISTING} position, without being parsed.
+     */
+    private static void mergeModelOverrides(JsonReader reader, JsonWriter writer, JsonArray[] models) throws IOException {
+        var hasOverrides = false;
+        reader.beginObject();
+        writer.beginObject();
+        while (reader.hasNext()) {
+            var name = reader.nextName();
+            if (name.equals("overrides")) {
+                if (hasOverrides) {
+                    reader.skipValue();
+                    continue;
+                }
+                hasOverrides = true;
+
+                writer.name(name).beginArray();
+                writeOverrides(writer, models, 0, OverridePlace.EXISTING.ordinal() + 1);
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    copyJson(reader, writer);
+                }
+                reader.endArray();
+                writeOverrides(writer, models, OverridePlace.EXISTING.ordinal() + 1, models.length);
+                writer.endArray();
+            } else {
+                writer.name(name);
+                copyJson(reader, writer);
+            }
+        }
+        reader.endObject();
+
+        if (!hasOverrides) {
+            writer.name("overrides").beginArray();
+            writeOverrides(writer, models, 0, models.length);
+            writer.endArray();
+        }
+        writer.endObject();
+    }
+
+    private static void writeOverrides(JsonWriter writer, JsonArray[] models, int from, int to) throws IOException {
+        for (int i = from; i < to; i++) {
+            if (models[i] != null) {
+                for (var element : models[i]) {
+                    JSON_ELEMENT_ADAPTER.write(writer, element);
+                }
+            }
+        }
+    }
+
+    private static void copyJson(JsonReader reader, JsonWriter writer) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_ARRAY -> {
+                reader.beginArray();
+                writer.beginArray();
+                while (reader.hasNext()) {
+                    copyJson(reader, writer);
+                }
+                reader.endArray();
+                writer.endArray();
+            }
+            case BEGIN_OBJECT -> {
+                reader.beginObject();
+                writer.beginObject();
+                while (reader.hasNext()) {
+                    writer.name(reader.nextName());
+                    copyJson(reader, writer);
+                }
+                reader.endObject();
+                writer.endObject();
+            }
+            case STRING -> writer.value(reader.nextString());
+            case NUMBER -> writer.jsonValue(reader.nextString());
+            case BOOLEAN -> writer.value(reader.nextBoolean());
+            case NULL -> {
+                reader.nextNull();
+                writer.nullValue();
+            }
+            default -> throw new IllegalStateException("Unexpected json token " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+
+    private String hashArmorInputs(List<ArmorInput> inputs, int globalScale) throws NoSuchAlgorithmException {
+        var digest = MessageDigest.getInstance("SHA-256");
+        var buffer = ByteBuffer.allocate(4);
+        Consumer<Integer> updateInt = (x) -> digest.update(buffer.clear().putInt(x).flip());
+        Consumer<byte[]> updateBytes = (x) -> {
+            updateInt.accept(x != null ? x.length : -1);
+            if (x != null) {
+                digest.update(x);
+            }
+        };
+
+        updateInt.accept(globalScale);
+        for (int i = 0; i <= 1; i++) {
+            updateBytes.accept(this.fileMap.get(armorTexture(vId("vanilla_leather"), i + 1)));
+            updateBytes.accept(this.fileMap.get(armorOverlayTexture(vId("vanilla_leather"), i + 1)));
+        }
 
-                    if (outByte == null) {
+        for (var input : inputs) {
+            updateInt.accept(input.color());
+            for (int i = 0; i <= 1; i++) {
+                updateBytes.accept(input.textures()[i]);
+                digest.update(input.metadata()[i].toString().getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private byte[][] createArmorTextures(List<ArmorInput> inputs, int globalScale) throws IOException {
+        // Decoding and scaling textures is independent for every armor, so it's done in parallel
+        var futures = new ArrayList<CompletableFuture<@Nullable ArmorData>>(inputs.size());
+        for (var input : inputs) {
+            futures.add(CompletableFuture.supplyAsync(() -> decodeArmorTextures(input, globalScale)));
+        }
+
+        var list = new ArrayList<ArmorData>(inputs.size());
+        for (var future : futures) {
+            var data = future.join();
+            if (data != null) {
+                list.add(data);
+            }
+        }
+
+        int[] width = new int[]{64 * globalScale, 64 * globalScale};
+        int[] height = new int[]{32 * globalScale, 32 * globalScale};
+
+        for (var entry : new ArrayList<>(list)) {
+            for (int i = 0; i <= 1; i++) {
+                var image = entry.images()[i];
+
+                if (image != null) {
+                    var check = (double) image.getWidth() / (64 * globalScale);
+                    if (check != Math.floor(check)) {
+                        CommonImpl.LOGGER.warn("Invalid texture size for armor " + entry.identifier() + " (" + i + ")! Skipping...");
+                        list.remove(entry);
                         continue;
                     }
+
+                    height[i] = Math.max(height[i], image.getHeight());
+                    width[i] += image.getWidth();
+                }
+
+            }
+        }
+
+        var image = new BufferedImage[]{new BufferedImage(width[0], height[0], BufferedImage.TYPE_INT_ARGB), new BufferedImage(width[1], height[1], BufferedImage.TYPE_INT_ARGB)};
+
+        int[] cWidth = new int[]{64 * globalScale, 64 * globalScale};
+
+        var graphics = new Graphics[]{image[0].getGraphics(), image[1].getGraphics()};
+
+        for (int i = 0; i <= 1; i++) {
+            {
+                //noinspection ConstantConditions
+                var tex = this.getSourceImage(armorTexture(vId("leather"), i + 1));
+                graphics[i].drawImage(tex, 0, 0, tex.getWidth() * globalScale, tex.getHeight() * globalScale, null);
+            }
+            {
+                //noinspection ConstantConditions
+                var tex = this.getSourceImage(armorOverlayTexture(vId("leather"), i + 1));
+                graphics[i].drawImage(tex, 0, 0, tex.getWidth() * globalScale, tex.getHeight() * globalScale, null);
+            }
+            graphics[i].setColor(Color.WHITE);
+            graphics[i].drawRect(0, 1, 0, 0);
+        }
+
+        for (var entry : list) {
+            for (int i = 0; i <= 1; i++) {
+                var metadata = entry.metadata()[i];
+                var tmpImage = entry.images()[i];
+
+                if (tmpImage == null) {
+                    continue;
+                }
+                graphics[i].drawImage(tmpImage, cWidth[i], 0, null);
+
+                graphics[i].setColor(new Color(entry.color() | 0xFF000000));
+                graphics[i].drawRect(cWidth[i], 0, 0, 0);
+
+                if ((metadata.frames() != 0 && metadata.animationSpeed() != 0) || metadata.interpolate()) {
+                    graphics[i].setColor(new Color(metadata.frames(), metadata.animationSpeed(), metadata.interpolate() ? 1 : 0));
+                    graphics[i].drawRect(cWidth[i] + 1, 0, 0, 0);
+                }
+
+                if (metadata.emissivity() != 0) {
+                    graphics[i].setColor(new Color(metadata.emissivity(), 0, 0));
+                    graphics[i].drawRect(cWidth[i] + 2, 0, 0, 0);
+                }
+
+                cWidth[i] += tmpImage.getWidth();
+            }
+        }
+
+        var textures = new byte[2][];
+        for (int i = 0; i <= 1; i++) {
+            graphics[i].dispose();
+            var out = new ByteArrayOutputStream();
+            ImageIO.write(image[i], "png", out);
+            textures[i] = out.toByteArray();
+        }
+        return textures;
+    }
+
+    @Nullable
+    private static ArmorData decodeArmorTextures(ArmorInput input, int globalScale) {
+        try {
+            var images = new BufferedImage[2];
+            for (int i = 0; i <= 1; i++) {
+                var data = input.textures()[i];
+                if (data == null) {
+                    continue;
+                }
+
+                BufferedImage bi = null;
+                try {
+                    bi = ImageIO.read(new ByteArrayInputStream(data));
+                } catch (Exception e) {
+                    if (!input.fromSource()[i]) {
+                        throw e;
+                    }
                 }
 
-                var zipEntry = new ZipEntry(path);
-                zipEntry.setTime(0);
-                outputStream.putNextEntry(zipEntry);
-                if (outByte != null) {
-                    outputStream.write(outByte);
+                var scale = globalScale / input.metadata()[i].scale();
+                if (bi != null && scale != 1) {
+                    var scaled = new BufferedImage(bi.getWidth() * scale, bi.getHeight() * scale, BufferedImage.TYPE_INT_ARGB);
+                    var graphics = scaled.createGraphics();
+                    graphics.drawImage(bi, 0, 0, scaled.getWidth(), scaled.getHeight(), null);
+                    graphics.dispose();
+                    bi = scaled;
                 }
-                outputStream.closeEntry();
+                images[i] = bi;
             }
+            return new ArmorData(input.identifier(), input.color(), images, input.metadata());
         } catch (Throwable e) {
+            CommonImpl.LOGGER.error("Error occurred when creating " + input.identifier() + " armor texture!");
             e.printStackTrace();
-            return false;
+            return null;
         }
-        return true;
+    }
+
+    /**
+     * Decoded images are reused for the rest of the build.
+     */
+    @Nullable
+    private BufferedImage getSourceImage(String path) {
+        var entry = this.getSourceEntry(path);
+        if (entry == null) {
+            return null;
+        }
+
+        var image = this.decodedSourceImages.get(entry);
+        if (image == null) {
+            try (var stream = Files.newInputStream(entry.path())) {
+                image = ImageIO.read(stream);
+            } catch (Throwable e) {
+                CommonImpl.LOGGER.warn("Error occurred while getting data from vanilla jar!", e);
+                return null;
+            }
+            if (image != null) {
+                this.decodedSourceImages.put(entry, image);
+            }
+        }
+        return image;
     }
 
     private Identifier vId(String path) {
@@ -693,4 +1233,24 @@ public class DefaultRPBuilder implements InternalRPBuilder {
     private record ArmorData(Identifier identifier, int color, BufferedImage[] images,
                              ArmorTextureMetadata[] metadata) {
     }
+
+    private record ArmorInput(Identifier identifier, int color, byte[][] textures, boolean[] fromSource,
+                              ArmorTextureMetadata[] metadata) {
+    }
+
+    private record SourceEntry(Path path, long size) {
+    }
+
+    private interface JsonWriterAction {
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    private record WriteConverter(@Nullable Pattern pattern, BiFunction<String, byte[], @Nullable byte[]> converter, boolean parallel) {
+        public boolean matches(String path) {
+            return this.pattern == null || this.pattern.matcher(path).matches();
+        }
+    }
+
+    private record PendingFile(String path, CompletableFuture<@Nullable byte[]> data, long size, boolean converted) {
+    }
 }
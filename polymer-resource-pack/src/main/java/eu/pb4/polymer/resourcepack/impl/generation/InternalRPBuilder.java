@@ -1,11 +1,16 @@
 package eu.pb4.polymer.resourcepack.impl.generation;
 
+import eu.pb4.polymer.resourcepack.api.BuiltResourcePack;
 import eu.pb4.polymer.resourcepack.api.ResourcePackBuilder;
 import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.CompletableFuture;
 
 @ApiStatus.Internal
 public interface InternalRPBuilder extends ResourcePackBuilder {
     CompletableFuture<Boolean> buildResourcePack();
+
+    @Nullable
+    BuiltResourcePack getBuiltPack();
 }
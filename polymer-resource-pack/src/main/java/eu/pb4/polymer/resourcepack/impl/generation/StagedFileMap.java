@@ -0,0 +1,128 @@
+package eu.pb4.polymer.resourcepack.impl.generation;
+
+import eu.pb4.polymer.common.impl.CommonImpl;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Sorted storage of resource pack files. Small files are kept on heap, while larger ones are spilled into
+ * temporary file and only read back when requested, so memory used by pack generation doesn't grow with pack size.
+ */
+@ApiStatus.Internal
+public final class StagedFileMap implements Closeable {
+    private static final int INLINE_LIMIT = 32 * 1024;
+    private final TreeMap<String, Object> files = new TreeMap<>();
+    @Nullable
+    private FileChannel spillFile;
+    private boolean spillFailed;
+    private long spillSize;
+
+    public void put(String path, @Nullable byte[] data) {
+        if (data != null && data.length > INLINE_LIMIT) {
+            var spilled = this.spill(data);
+            if (spilled != null) {
+                this.files.put(path, spilled);
+                return;
+            }
+        }
+        this.files.put(path, data);
+    }
+
+    @Nullable
+    public byte[] get(String path) {
+        return this.load(this.files.get(path));
+    }
+
+    public boolean containsKey(String path) {
+        return this.files.containsKey(path);
+    }
+
+    /**
+     * Iterates over files in path order. Spilled files are only read once their entry is reached.
+     */
+    public Iterable<Map.Entry<String, byte[]>> entries() {
+        return () -> new Iterator<>() {
+            private final Iterator<Map.Entry<String, Object>> iterator = StagedFileMap.this.files.entrySet().iterator();
+
+            @Override
+            public boolean hasNext() {
+                return this.iterator.hasNext();
+            }
+
+            @Override
+            public Map.Entry<String, byte[]> next() {
+                var entry = this.iterator.next();
+                return new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), StagedFileMap.this.load(entry.getValue()));
+            }
+        };
+    }
+
+    @Nullable
+    private Spilled spill(byte[] data) {
+        if (this.spillFailed) {
+            return null;
+        }
+
+        try {
+            if (this.spillFile == null) {
+                var path = Files.createTempFile("polymer-resource-pack", ".tmp");
+                this.spillFile = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+            }
+
+            // Replaced files aren't reclaimed, as file only lives for single build
+            var offset = this.spillSize;
+            var buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                this.spillFile.write(buffer, offset + buffer.position());
+            }
+            this.spillSize += data.length;
+            return new Spilled(offset, data.length);
+        } catch (Throwable e) {
+            CommonImpl.LOGGER.warn("Couldn't create temporary file for resource pack generation! Keeping everything in memory...", e);
+            this.spillFailed = true;
+            return null;
+        }
+    }
+
+    @Nullable
+    private byte[] load(@Nullable Object value) {
+        if (value instanceof Spilled spilled) {
+            try {
+                var data = new byte[spilled.length()];
+                var buffer = ByteBuffer.wrap(data);
+                while (buffer.hasRemaining()) {
+                    if (this.spillFile.read(buffer, spilled.offset() + buffer.position()) == -1) {
+                        throw new IOException("Unexpected end of temporary resource pack file");
+                    }
+                }
+                return data;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return (byte[]) value;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.spillFile != null) {
+            this.spillFile.close();
+            this.spillFile = null;
+        }
+    }
+
+    private record Spilled(long offset, int length) {
+    }
+}
@@ -1,11 +1,17 @@
 package eu.pb4.polymer.virtualentity.api;
 
+import eu.pb4.polymer.virtualentity.api.elements.GenericEntityElement;
 import eu.pb4.polymer.virtualentity.api.elements.VirtualElement;
 import eu.pb4.polymer.virtualentity.api.attachment.HolderAttachment;
 import eu.pb4.polymer.virtualentity.impl.HolderHolder;
+import eu.pb4.polymer.virtualentity.impl.HolderPacketBatch;
 import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntList;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+import it.unimi.dsi.fastutil.objects.ObjectLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.network.listener.ClientPlayPacketListener;
 import net.minecraft.network.packet.Packet;
 import net.minecraft.network.packet.s2c.play.BundleS2CPacket;
@@ -14,6 +20,7 @@ import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.MathHelper;
 import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.Nullable;
 
@@ -21,16 +28,43 @@ import java.util.*;
 import java.util.function.Consumer;
 
 public class ElementHolder {
+    private static final VirtualElement[] EMPTY_ELEMENTS = new VirtualElement[0];
+    private static final int SYNC_DISTANCE_CHECK_INTERVAL = 10;
     private final Consumer<Packet<ClientPlayPacketListener>> EMPTY_PACKET_CONSUMER = (p) -> {};
 
     private HolderAttachment attachment;
     private final List<VirtualElement> elements = new ObjectArrayList<>();
-    private final List<ServerPlayNetworkHandler> players = new ArrayList<>();
+    private final Set<ServerPlayNetworkHandler> players = new ObjectLinkedOpenHashSet<>();
+    /**
+     * Elements ticked every tick, as they can't report their own changes
+     */
+    private final List<VirtualElement> alwaysTickingElements = new ObjectArrayList<>();
+    private final Set<VirtualElement> dirtyElements = new ReferenceLinkedOpenHashSet<>();
+    /**
+     * Elements not sent to player, as they are further away than {@link VirtualElement#getSyncDistance()}
+     */
+    private final Map<ServerPlayNetworkHandler, Set<VirtualElement>> hiddenElements = new Reference2ObjectOpenHashMap<>();
     protected Vec3d currentPos = Vec3d.ZERO;
     private ChunkPos currentChunkPos = null;
+    private long indexedChunkPos = Long.MIN_VALUE;
 
     private final IntList entityIds = new IntArrayList();
+    /**
+     * Packets sent during tick, flushed to watchers as a single bundle once it finishes
+     */
+    private final List<Packet<? super ClientPlayPacketListener>> tickPackets = new ArrayList<>();
+    /**
+     * Elements that sent matching packets from {@link #tickPackets}, or null for packets that should be sent to everyone
+     */
+    private final List<VirtualElement> tickPacketSources = new ArrayList<>();
+    private boolean isTicking;
+    private int tickCount;
+    private MovementPolicy movementPolicy = MovementPolicy.DEFAULT;
     private final IntList attachedPassengerEntityIds = new IntArrayList();
+    @Nullable
+    private int[] attachedPassengerEntityIdArray;
+    @Nullable
+    private ArrayList<ServerPlayNetworkHandler> trackingScratch = new ArrayList<>();
 
     public boolean isPartOf(int entityId) {
         return this.entityIds.contains(entityId);
@@ -43,6 +77,10 @@ public class ElementHolder {
     public <T extends VirtualElement> T addElement(T element) {
         if (this.addElementWithoutUpdates(element)) {
             for (var player : this.players) {
+                if (!this.isInSyncDistance(element, player)) {
+                    this.hiddenElements.computeIfAbsent(player, x -> new ReferenceOpenHashSet<>()).add(element);
+                    continue;
+                }
                 var x = new ArrayList<Packet<? super ClientPlayPacketListener>>();
                 element.startWatching(player.getPlayer(), x::add);
                 player.sendPacket(new BundleS2CPacket(x));
@@ -54,7 +92,15 @@ public class ElementHolder {
     public boolean addElementWithoutUpdates(VirtualElement element) {
         if (!this.elements.contains(element)) {
             this.elements.add(element);
+            if (ticksOnlyWhenDirty(element)) {
+                this.dirtyElements.add(element);
+            } else {
+                this.alwaysTickingElements.add(element);
+            }
             this.entityIds.addAll(element.getEntityIds());
+            for (var player : this.players) {
+                ((HolderHolder) player).polymer$addHolderEntityIds(this, element.getEntityIds());
+            }
             element.setHolder(this);
             return true;
         }
@@ -76,7 +122,24 @@ public class ElementHolder {
     public boolean removeElementWithoutUpdates(VirtualElement element) {
         if (this.elements.contains(element)) {
             this.elements.remove(element);
+            this.alwaysTickingElements.remove(element);
+            this.dirtyElements.remove(element);
+            if (!this.hiddenElements.isEmpty()) {
+                var iterator = this.hiddenElements.values().iterator();
+                while (iterator.hasNext()) {
+                    var hidden = iterator.next();
+                    if (hidden.remove(element) && hidden.isEmpty()) {
+                        iterator.remove();
+                    }
+                }
+            }
             this.entityIds.removeAll(element.getEntityIds());
+            if (!this.attachedPassengerEntityIds.isEmpty() && this.attachedPassengerEntityIds.removeAll(element.getEntityIds())) {
+                this.attachedPassengerEntityIdArray = null;
+            }
+            for (var player : this.players) {
+                ((HolderHolder) player).polymer$removeHolderEntityIds(this, element.getEntityIds());
+            }
             element.setHolder(null);
             return true;
         }
@@ -88,15 +151,27 @@ public class ElementHolder {
     }
 
     public boolean startWatching(ServerPlayNetworkHandler player) {
-        if (this.players.contains(player)) {
+        if (!this.players.add(player)) {
             return false;
         }
-        this.players.add(player);
+        var batch = HolderPacketBatch.get();
+        if (batch != null) {
+            batch.flush(player);
+        }
         ((HolderHolder) player).polymer$addHolder(this);
         var packets = new ArrayList<Packet<? super ClientPlayPacketListener>>();
 
+        Set<VirtualElement> hidden = null;
         for (var e : this.elements) {
-            e.startWatching(player.getPlayer(), packets::add);
+            if (this.isInSyncDistance(e, player)) {
+                e.startWatching(player.getPlayer(), packets::add);
+            } else {
+                if (hidden == null) {
+                    hidden = new ReferenceOpenHashSet<>();
+                    this.hiddenElements.put(player, hidden);
+                }
+                hidden.add(e);
+            }
         }
 
         this.startWatchingExtraPackets(player, packets::add);
@@ -118,16 +193,22 @@ public class ElementHolder {
     }
 
     public boolean stopWatching(ServerPlayNetworkHandler player) {
-        if (!this.players.contains(player)) {
+        if (!this.players.remove(player)) {
             return false;
         }
-        this.players.remove(player);
+        var batch = HolderPacketBatch.get();
+        if (batch != null) {
+            batch.flush(player);
+        }
         ((HolderHolder) player).polymer$removeHolder(this);
+        var hidden = this.hiddenElements.remove(player);
 
         Consumer<Packet<ClientPlayPacketListener>> packetConsumer = player.isConnectionOpen() ? player::sendPacket : EMPTY_PACKET_CONSUMER;
 
         for (var e : this.elements) {
-            e.stopWatching(player.getPlayer(), packetConsumer);
+            if (hidden == null || !hidden.contains(e)) {
+                e.stopWatching(player.getPlayer(), packetConsumer);
+            }
         }
         packetConsumer.accept(new EntitiesDestroyS2CPacket(this.entityIds));
 
@@ -143,15 +224,153 @@ public class ElementHolder {
             return;
         }
 
-        this.onTick();
+        this.tickCount++;
+        if (this.tickCount % SYNC_DISTANCE_CHECK_INTERVAL == 0) {
+            this.updateSyncDistance();
+        }
+
+        this.isTicking = true;
+        try {
+            this.onTick();
+
+            this.updatePosition();
+
+            for (int i = 0; i < this.alwaysTickingElements.size(); i++) {
+                this.alwaysTickingElements.get(i).tick();
+            }
+
+            if (!this.dirtyElements.isEmpty()) {
+                var dirty = this.dirtyElements.toArray(EMPTY_ELEMENTS);
+                this.dirtyElements.clear();
+                for (var e : dirty) {
+                    if (e.getHolder() == this) {
+                        e.tick();
+                    }
+                }
+            }
+        } finally {
+            this.isTicking = false;
+            this.flushTickPackets();
+        }
+    }
+
+    public int getTickCount() {
+        return this.tickCount;
+    }
+
+    public MovementPolicy getMovementPolicy() {
+        return this.movementPolicy;
+    }
+
+    public void setMovementPolicy(MovementPolicy movementPolicy) {
+        this.movementPolicy = movementPolicy;
+    }
+
+    /**
+     * Marks element as changed, so it's ticked on next holder tick.
+     * Elements that can't report their changes are ticked every tick regardless.
+     */
+    public void markElementDirty(VirtualElement element) {
+        if (element.getHolder() == this && ticksOnlyWhenDirty(element)) {
+            this.dirtyElements.add(element);
+        }
+    }
+
+    private static boolean ticksOnlyWhenDirty(VirtualElement element) {
+        return element instanceof GenericEntityElement genericEntityElement && genericEntityElement.ticksOnlyWhenDirty();
+    }
+
+    private void flushTickPackets() {
+        if (this.tickPackets.isEmpty()) {
+            return;
+        }
+
+        var batch = HolderPacketBatch.get();
+        List<Packet<? super ClientPlayPacketListener>> shared = null;
+        for (var player : this.players) {
+            var hidden = this.hiddenElements.isEmpty() ? null : this.hiddenElements.get(player);
+            var packets = this.tickPackets;
+            if (hidden != null) {
+                packets = new ArrayList<>(this.tickPackets.size());
+                for (int i = 0; i < this.tickPackets.size(); i++) {
+                    var source = this.tickPacketSources.get(i);
+                    if (source == null || !hidden.contains(source)) {
+                        packets.add(this.tickPackets.get(i));
+                    }
+                }
+            }
+
+            if (batch != null) {
+                batch.add(player, packets);
+            } else {
+                List<Packet<? super ClientPlayPacketListener>> bundled;
+                if (hidden == null) {
+                    if (shared == null) {
+                        shared = HolderPacketBatch.bundle(this.tickPackets);
+                    }
+                    bundled = shared;
+                } else {
+                    bundled = HolderPacketBatch.bundle(packets);
+                }
+
+                for (var packet : bundled) {
+                    player.sendPacket(packet);
+                }
+            }
+        }
+        this.tickPackets.clear();
+        this.tickPacketSources.clear();
+    }
 
-        this.updatePosition();
+    /**
+     * Shows and hides elements with limited {@link VirtualElement#getSyncDistance()}, based on distance of every watching player.
+     * Only elements that crossed their sync distance since last check are sent or removed.
+     */
+    protected void updateSyncDistance() {
+        if (this.players.isEmpty()) {
+            return;
+        }
 
+        var batch = HolderPacketBatch.get();
         for (var e : this.elements) {
-            e.tick();
+            if (e.getSyncDistance() == Double.POSITIVE_INFINITY && this.hiddenElements.isEmpty()) {
+                continue;
+            }
+
+            for (var player : this.players) {
+                var hidden = this.hiddenElements.get(player);
+                var isHidden = hidden != null && hidden.contains(e);
+                var inRange = this.isInSyncDistance(e, player);
+                if (batch != null && isHidden == inRange) {
+                    batch.flush(player);
+                }
+
+                if (isHidden && inRange) {
+                    hidden.remove(e);
+                    if (hidden.isEmpty()) {
+                        this.hiddenElements.remove(player);
+                    }
+                    var packets = new ArrayList<Packet<? super ClientPlayPacketListener>>();
+                    e.startWatching(player.getPlayer(), packets::add);
+                    player.sendPacket(new BundleS2CPacket(packets));
+                } else if (!isHidden && !inRange) {
+                    if (hidden == null) {
+                        hidden = new ReferenceOpenHashSet<>();
+                        this.hiddenElements.put(player, hidden);
+                    }
+                    hidden.add(e);
+                    e.stopWatching(player.getPlayer(), player::sendPacket);
+                    player.sendPacket(new EntitiesDestroyS2CPacket(e.getEntityIds()));
+                }
+            }
         }
     }
 
+    private boolean isInSyncDistance(VirtualElement element, ServerPlayNetworkHandler player) {
+        var distance = element.getSyncDistance();
+        return distance == Double.POSITIVE_INFINITY || element.getCurrentPos().squaredDistanceTo(player.getPlayer().getPos()) <= distance * distance;
+    }
+
     protected void onTick() {
     }
 
@@ -167,6 +386,10 @@ public class ElementHolder {
             this.notifyElementsOfPositionUpdate(newPos, delta);
             this.currentPos = newPos;
             this.currentChunkPos = null;
+            this.updateChunkIndex();
+            for (var e : this.elements) {
+                this.markElementDirty(e);
+            }
         }
     }
 
@@ -179,15 +402,34 @@ public class ElementHolder {
 
         this.currentPos = newPos;
         this.currentChunkPos = null;
+        this.updateChunkIndex();
+    }
+
+    /**
+     * Moves holder between chunk buckets of watching players, used to find holders when chunk is unloaded for them.
+     * Called whenever chunk position might have changed, including {@link #invalidateCaches()}.
+     */
+    private void updateChunkIndex() {
+        var chunkPos = ChunkPos.toLong(MathHelper.floor(this.currentPos.x) >> 4, MathHelper.floor(this.currentPos.z) >> 4);
+        if (chunkPos == this.indexedChunkPos) {
+            return;
+        }
+        this.indexedChunkPos = chunkPos;
+
+        for (var player : this.players) {
+            ((HolderHolder) player).polymer$updateHolderChunk(this, chunkPos);
+        }
     }
 
     protected void invalidateCaches() {
         this.currentChunkPos = null;
+        this.updateChunkIndex();
     }
 
     public ChunkPos getChunkPos() {
         if (this.currentChunkPos == null) {
             this.currentChunkPos = new ChunkPos(BlockPos.ofFloored(this.currentPos));
+            this.updateChunkIndex();
         }
         return this.currentChunkPos;
     }
@@ -198,7 +440,56 @@ public class ElementHolder {
         }
     }
 
+    /**
+     * Sends packet to all watching players. Packets sent while holder is ticking
+     * are collected and sent together as a single bundle at the end of the tick.
+     * This ignores {@link VirtualElement#getSyncDistance()}, so packets related to a single element
+     * should be sent with {@link #sendPacket(VirtualElement, Packet)} instead, to skip players it's hidden for.
+     */
     public void sendPacket(Packet<? extends ClientPlayPacketListener> packet) {
+        this.sendPacketInternal(null, packet);
+    }
+
+    /**
+     * Sends packet related to the element, skipping players that are too far away to see it.
+     */
+    public void sendPacket(@Nullable VirtualElement source, Packet<? extends ClientPlayPacketListener> packet) {
+        if (source == null || this.hiddenElements.isEmpty()) {
+            this.sendPacket(packet);
+        } else {
+            this.sendPacketInternal(source, packet);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void sendPacketInternal(@Nullable VirtualElement source, Packet<? extends ClientPlayPacketListener> packet) {
+        if (this.players.isEmpty()) {
+            return;
+        }
+
+        if (this.isTicking) {
+            if (packet instanceof BundleS2CPacket bundle) {
+                for (var x : bundle.getPackets()) {
+                    this.tickPackets.add(x);
+                    this.tickPacketSources.add(source);
+                }
+            } else {
+                this.tickPackets.add((Packet<ClientPlayPacketListener>) packet);
+                this.tickPacketSources.add(source);
+            }
+        } else if (source == null || this.hiddenElements.isEmpty()) {
+            this.sendPacketDirect(packet);
+        } else {
+            for (var player : this.players) {
+                var hidden = this.hiddenElements.get(player);
+                if (hidden == null || !hidden.contains(source)) {
+                    player.sendPacket(packet);
+                }
+            }
+        }
+    }
+
+    private void sendPacketDirect(Packet<? extends ClientPlayPacketListener> packet) {
         for (var player : players) {
             player.sendPacket(packet);
         }
@@ -215,13 +506,24 @@ public class ElementHolder {
             if (this.currentPos == Vec3d.ZERO && attachment.canUpdatePosition()) {
                 this.updateInitialPosition();
             }
-            attachment.updateCurrentlyTracking(new ArrayList<>(this.players));
+            // Players are copied, as attachment can stop watching while iterating. Copy is reused unless called recursively
+            var players = this.trackingScratch != null ? this.trackingScratch : new ArrayList<ServerPlayNetworkHandler>();
+            this.trackingScratch = null;
+            players.addAll(this.players);
+            try {
+                attachment.updateCurrentlyTracking(players);
+            } finally {
+                players.clear();
+                this.trackingScratch = players;
+            }
         }
     }
 
     public Vec3d getPos() {
         if (this.currentPos == Vec3d.ZERO && attachment != null && attachment.canUpdatePosition()) {
             this.currentPos = attachment.getPos();
+            this.currentChunkPos = null;
+            this.updateChunkIndex();
         }
 
         return this.currentPos;
@@ -267,17 +569,47 @@ public class ElementHolder {
         return this.attachedPassengerEntityIds;
     }
 
+    /**
+     * Snapshot of {@link #getAttachedPassengerEntityIds()}, rebuilt only after passengers change.
+     * Returned array must not be modified.
+     */
+    public int[] getAttachedPassengerEntityIdArray() {
+        var array = this.attachedPassengerEntityIdArray;
+        // List is exposed as mutable, so cached copy is validated against it instead of relying on invalidation alone
+        if (array == null || !this.matchesPassengerIds(array)) {
+            array = this.attachedPassengerEntityIds.toIntArray();
+            this.attachedPassengerEntityIdArray = array;
+        }
+        return array;
+    }
+
+    private boolean matchesPassengerIds(int[] array) {
+        var list = this.attachedPassengerEntityIds;
+        if (array.length != list.size()) {
+            return false;
+        }
+        for (int i = 0; i < array.length; i++) {
+            if (array[i] != list.getInt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public <T extends VirtualElement> T addPassengerElement(T element) {
         this.addElement(element);
         attachedPassengerEntityIds.addAll(element.getEntityIds());
+        this.attachedPassengerEntityIdArray = null;
         return element;
     }
 
     public void addPassengerId(int i) {
         this.attachedPassengerEntityIds.add(i);
+        this.attachedPassengerEntityIdArray = null;
     }
 
     public void removePassengerId(int i) {
-        this.attachedPassengerEntityIds.add(i);
+        this.attachedPassengerEntityIds.rem(i);
+        this.attachedPassengerEntityIdArray = null;
     }
 }
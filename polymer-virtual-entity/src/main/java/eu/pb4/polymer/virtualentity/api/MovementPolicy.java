@@ -0,0 +1,40 @@
+package eu.pb4.polymer.virtualentity.api;
+
+/**
+ * Controls how often element positions of a holder are synchronized with players.
+ * Throttled updates work best with display elements, which can use
+ * {@link eu.pb4.polymer.virtualentity.api.elements.DisplayElement#setTeleportDuration(int)}
+ * set to the update interval to let client interpolate between them.
+ *
+ * @param updateInterval minimal amount of holder ticks between position updates of a single element
+ * @param maxError distance from last synced position, after which update is sent without waiting for the interval
+ * @param teleportDistance distance from last synced position, after which absolute position is sent instead of relative move
+ */
+public record MovementPolicy(int updateInterval, double maxError, double teleportDistance) {
+    /**
+     * Largest distance a relative move packet can encode, as it stores deltas as shorts in 1/4096 of a block.
+     * Elements moving further than that between updates need to be teleported anyway.
+     */
+    public static final double MAX_RELATIVE_MOVE_DISTANCE = 8;
+
+    /**
+     * Sends position updates every tick, leaving choice between relative move and teleport to the element.
+     */
+    public static final MovementPolicy DEFAULT = new MovementPolicy(1, 0, Double.POSITIVE_INFINITY);
+
+    /**
+     * Sends position updates every {@code updateInterval} ticks (or sooner, once element moves further than {@code maxError}),
+     * teleporting elements that moved further than {@link #MAX_RELATIVE_MOVE_DISTANCE}.
+     */
+    public static MovementPolicy interpolated(int updateInterval, double maxError) {
+        return new MovementPolicy(updateInterval, maxError, MAX_RELATIVE_MOVE_DISTANCE);
+    }
+
+    public boolean shouldUpdate(int ticksSinceUpdate, double squaredDistance) {
+        return ticksSinceUpdate >= this.updateInterval || squaredDistance > this.maxError * this.maxError;
+    }
+
+    public boolean shouldTeleport(double squaredDistance) {
+        return squaredDistance > this.teleportDistance * this.teleportDistance;
+    }
+}
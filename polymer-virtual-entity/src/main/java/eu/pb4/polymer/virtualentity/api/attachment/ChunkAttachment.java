@@ -5,16 +5,13 @@ import eu.pb4.polymer.virtualentity.api.ElementHolder;
 import eu.pb4.polymer.virtualentity.api.VirtualEntityUtils;
 import eu.pb4.polymer.virtualentity.impl.HolderAttachmentHolder;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
-import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.chunk.WorldChunk;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 @SuppressWarnings("ClassCanBeRecord")
 public class ChunkAttachment implements HolderAttachment {
@@ -93,20 +90,20 @@ public class ChunkAttachment implements HolderAttachment {
 
     @Override
     public void updateCurrentlyTracking(Collection<ServerPlayNetworkHandler> currentlyTracking) {
-        List<ServerPlayNetworkHandler> watching = new ArrayList<>();
-        for (ServerPlayerEntity x : ((ServerChunkManager) this.chunk.getWorld().getChunkManager()).chunkLoadingManager.getPlayersWatchingChunk(this.chunk.getPos(), false)) {
-            ServerPlayNetworkHandler networkHandler = x.networkHandler;
-            watching.add(networkHandler);
-        }
+        var watching = ((ServerChunkManager) this.chunk.getWorld().getChunkManager()).chunkLoadingManager.getPlayersWatchingChunk(this.chunk.getPos(), false);
 
+        // Same check as used by updateTracking, so no lookup set of watching players needs to be built
         for (var player : currentlyTracking) {
-            if (!watching.contains(player)) {
+            if (!VirtualEntityUtils.isPlayerTracking(player.getPlayer(), this.chunk)) {
                 this.holder.stopWatching(player);
             }
         }
 
+        var tracked = this.holder.getWatchingPlayers();
         for (var x : watching) {
-            this.holder.startWatching(x.getPlayer().networkHandler);
+            if (!tracked.contains(x.networkHandler)) {
+                this.holder.startWatching(x.networkHandler);
+            }
         }
     }
 
@@ -15,8 +15,7 @@ public abstract class AbstractElement implements VirtualElement {
     @Nullable
     protected Vec3d lastSyncedPos;
     private InteractionHandler handler = InteractionHandler.EMPTY;
-
-
+    private double syncDistance = Double.POSITIVE_INFINITY;
 
     @Override
     public Vec3d getOffset() {
@@ -26,6 +25,7 @@ public abstract class AbstractElement implements VirtualElement {
     @Override
     public void setOffset(Vec3d offset) {
         this.offset = offset;
+        this.markDirty();
     }
 
     @Nullable
@@ -36,6 +36,7 @@ public abstract class AbstractElement implements VirtualElement {
     @Nullable
     public void setOverridePos(Vec3d vec3d) {
         this.overridePos = vec3d;
+        this.markDirty();
     }
 
     @Override
@@ -56,6 +57,24 @@ public abstract class AbstractElement implements VirtualElement {
         this.holder = holder;
     }
 
+    @Override
+    public double getSyncDistance() {
+        return this.syncDistance;
+    }
+
+    public void setSyncDistance(double syncDistance) {
+        this.syncDistance = syncDistance;
+    }
+
+    /**
+     * Schedules this element to be ticked by its holder on next holder tick.
+     */
+    protected void markDirty() {
+        if (this.holder != null) {
+            this.holder.markElementDirty(this);
+        }
+    }
+
     @Override
     public InteractionHandler getInteractionHandler(ServerPlayerEntity player) {
         return this.handler;
@@ -42,7 +42,7 @@ public class EntityElement<T extends Entity> extends AbstractElement {
 
     private void sendPacket(Packet<?> packet) {
         if (this.getHolder() != null) {
-            this.getHolder().sendPacket((Packet<ClientPlayPacketListener>) packet);
+            this.getHolder().sendPacket(this, (Packet<ClientPlayPacketListener>) packet);
         }
     }
 
@@ -21,11 +21,29 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Consumer;
 
 @SuppressWarnings("ConstantConditions")
 public abstract class GenericEntityElement extends AbstractElement {
+    /**
+     * Methods that can change what element sends without it being marked as dirty, when overridden
+     */
+    private static final Set<String> TICK_SENSITIVE_METHODS = Set.of("tick", "getCurrentPos", "getOffset", "sendPositionUpdates", "sendRotationUpdates");
+    private static final ClassValue<Boolean> USES_DEFAULT_TICK_LOGIC = new ClassValue<>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            for (var c = type; c != null && c != GenericEntityElement.class; c = c.getSuperclass()) {
+                for (var method : c.getDeclaredMethods()) {
+                    if (method.getParameterCount() == 0 && TICK_SENSITIVE_METHODS.contains(method.getName())) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    };
     protected final DataTrackerLike dataTracker = this.createDataTracker();
     private final int id = VirtualEntityUtils.requestEntityId();
     private final UUID uuid = UUID.randomUUID();
@@ -33,10 +51,27 @@ public abstract class GenericEntityElement extends AbstractElement {
     private float yaw;
     private boolean isRotationDirty;
     private boolean sendPositionUpdates = true;
+    private int lastPositionUpdateTick;
+
+    {
+        if (this.dataTracker instanceof SimpleDataTracker simpleDataTracker) {
+            simpleDataTracker.setDirtyListener(this::markDirty);
+        }
+    }
+
     protected DataTrackerLike createDataTracker() {
         return new SimpleDataTracker(this.getEntityType());
     }
 
+    /**
+     * Returns true if element only needs to be ticked by its holder after being marked as dirty.
+     * By default, it's only enabled for elements that don't override tick or position logic,
+     * but subclasses can override it to opt in or out.
+     */
+    public boolean ticksOnlyWhenDirty() {
+        return this.dataTracker instanceof SimpleDataTracker && USES_DEFAULT_TICK_LOGIC.get(this.getClass());
+    }
+
     public boolean isDirty() {
         return this.isRotationDirty || this.dataTracker.isDirty();
     }
@@ -51,6 +86,9 @@ public abstract class GenericEntityElement extends AbstractElement {
 
     public void setSendPositionUpdates(boolean b) {
         this.sendPositionUpdates = b;
+        if (b) {
+            this.markDirty();
+        }
     }
 
     public boolean isSendingPositionUpdates() {
@@ -61,6 +99,7 @@ public abstract class GenericEntityElement extends AbstractElement {
         if (this.pitch != pitch) {
             this.pitch = pitch;
             this.isRotationDirty = true;
+            this.markDirty();
         }
     }
 
@@ -68,6 +107,7 @@ public abstract class GenericEntityElement extends AbstractElement {
         if (this.yaw != yaw) {
             this.yaw = yaw;
             this.isRotationDirty = true;
+            this.markDirty();
         }
     }
 
@@ -127,6 +167,9 @@ public abstract class GenericEntityElement extends AbstractElement {
     public void stopWatching(ServerPlayerEntity player, Consumer<Packet<ClientPlayPacketListener>> packetConsumer) {
     }
 
+    /**
+     * Elements are only ticked by their holder after being marked as dirty, if {@link #ticksOnlyWhenDirty()} returns true.
+     */
     @Override
     public void tick() {
         this.sendTrackerUpdates();
@@ -147,7 +190,20 @@ public abstract class GenericEntityElement extends AbstractElement {
             return;
         }
 
-        if (this.lastSyncedPos == null) {
+        var holder = this.getHolder();
+        var teleport = this.lastSyncedPos == null;
+        if (!teleport) {
+            var policy = holder.getMovementPolicy();
+            var distance = pos.squaredDistanceTo(this.lastSyncedPos);
+            if (!policy.shouldUpdate(holder.getTickCount() - this.lastPositionUpdateTick, distance)) {
+                // Retry on next tick, as update might never be triggered otherwise
+                this.markDirty();
+                return;
+            }
+            teleport = policy.shouldTeleport(distance);
+        }
+
+        if (teleport) {
             var i = MathHelper.floor(yaw * 256.0F / 360.0F);
             var j = MathHelper.floor(pitch * 256.0F / 360.0F);
             packet = VirtualEntityUtils.createSimpleMovePacket(this.id, pos, (byte) i, (byte) j);
@@ -156,9 +212,10 @@ public abstract class GenericEntityElement extends AbstractElement {
         }
 
         if (packet != null) {
-            this.getHolder().sendPacket(packet);
+            holder.sendPacket(this, packet);
             if (!(packet instanceof EntityS2CPacket.Rotate)) {
                 this.lastSyncedPos = pos;
+                this.lastPositionUpdateTick = holder.getTickCount();
             }
         }
         this.isRotationDirty = false;
@@ -168,7 +225,7 @@ public abstract class GenericEntityElement extends AbstractElement {
         if (this.dataTracker.isDirty()) {
             var dirty = this.dataTracker.getDirtyEntries();
             if (dirty != null) {
-                this.getHolder().sendPacket(new EntityTrackerUpdateS2CPacket(this.id, dirty));
+                this.getHolder().sendPacket(this, new EntityTrackerUpdateS2CPacket(this.id, dirty));
             }
         }
     }
@@ -177,7 +234,7 @@ public abstract class GenericEntityElement extends AbstractElement {
         if (this.isRotationDirty) {
             var i = MathHelper.floor(yaw * 256.0F / 360.0F);
             var j = MathHelper.floor(pitch * 256.0F / 360.0F);
-            this.getHolder().sendPacket(new EntityS2CPacket.Rotate(id, (byte) i, (byte) j, false));
+            this.getHolder().sendPacket(this, new EntityS2CPacket.Rotate(id, (byte) i, (byte) j, false));
             this.isRotationDirty = false;
         }
     }
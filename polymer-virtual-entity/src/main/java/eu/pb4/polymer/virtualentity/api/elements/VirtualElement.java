@@ -44,6 +44,14 @@ public interface VirtualElement {
         return this.getCurrentPos();
     }
 
+    /**
+     * Maximum distance from player at which this element is sent to them.
+     * Holders check it periodically, so it's fine for elements to briefly stay visible outside of it.
+     */
+    default double getSyncDistance() {
+        return Double.POSITIVE_INFINITY;
+    }
+
     void startWatching(ServerPlayerEntity player, Consumer<Packet<ClientPlayPacketListener>> packetConsumer);
     void stopWatching(ServerPlayerEntity player, Consumer<Packet<ClientPlayPacketListener>> packetConsumer);
     void notifyMove(Vec3d oldPos, Vec3d currentPos, Vec3d delta);
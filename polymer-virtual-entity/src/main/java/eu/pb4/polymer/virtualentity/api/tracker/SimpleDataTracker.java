@@ -1,19 +1,30 @@
 package eu.pb4.polymer.virtualentity.api.tracker;
 
 import eu.pb4.polymer.common.impl.entity.InternalEntityHelpers;
-import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.data.DataTracker;
 import net.minecraft.entity.data.TrackedData;
 import org.apache.commons.lang3.ObjectUtils;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class SimpleDataTracker implements DataTrackerLike {
     private final Entry<?>[] entries;
+    /**
+     * Bitmask of dirty entry indexes, so collecting them doesn't need to check every entry
+     */
+    private final long[] dirtyMask;
     private boolean dirty;
+    /**
+     * Immutable snapshot of entries differing from initial values, shared by spawn packets until a value changes
+     */
+    @Nullable
+    private List<DataTracker.SerializedEntry<?>> changedEntries;
+    private boolean changedEntriesValid;
+    @Nullable
+    private Runnable dirtyListener;
 
     @SuppressWarnings("rawtypes")
     public SimpleDataTracker(EntityType<?> baseEntity) {
@@ -24,7 +35,9 @@ public class SimpleDataTracker implements DataTrackerLike {
             var x = entries[i];
             //noinspection unchecked
             this.entries[i] = new Entry(x.getData(), x.get());
+            this.entries[i].tracker = this;
         }
+        this.dirtyMask = new long[(entries.length + 63) >>> 6];
     }
 
     @Override
@@ -35,7 +48,7 @@ public class SimpleDataTracker implements DataTrackerLike {
 
     @Nullable
     public <T> Entry<T> getEntry(TrackedData<T> data) {
-        if (data.id() > this.entries.length) {
+        if (data.id() >= this.entries.length) {
             return null;
         }
 
@@ -61,7 +74,6 @@ public class SimpleDataTracker implements DataTrackerLike {
         if (entry != null && (forceDirty || ObjectUtils.notEqual(value, entry.get()))) {
             entry.set(value);
             entry.setDirty(true);
-            this.dirty = true;
         }
     }
 
@@ -70,10 +82,41 @@ public class SimpleDataTracker implements DataTrackerLike {
         var entry = getEntry(key);
         if (entry != null) {
             entry.setDirty(isDirty);
-            this.dirty |= isDirty;
         }
     }
 
+    /**
+     * Called by entries of this tracker, so changes done directly through them are still tracked
+     */
+    private void onEntrySet() {
+        this.changedEntriesValid = false;
+    }
+
+    private void onEntryDirty(int id, boolean isDirty) {
+        if (isDirty) {
+            this.dirtyMask[id >>> 6] |= 1L << id;
+            this.markDirty();
+        } else {
+            this.dirtyMask[id >>> 6] &= ~(1L << id);
+        }
+    }
+
+    private void markDirty() {
+        if (!this.dirty) {
+            this.dirty = true;
+            if (this.dirtyListener != null) {
+                this.dirtyListener.run();
+            }
+        }
+    }
+
+    /**
+     * Sets listener called once tracker goes from clean to dirty state.
+     */
+    public void setDirtyListener(@Nullable Runnable listener) {
+        this.dirtyListener = listener;
+    }
+
     @Override
     public boolean isDirty() {
         return this.dirty;
@@ -82,40 +125,71 @@ public class SimpleDataTracker implements DataTrackerLike {
     @Override
     @Nullable
     public List<DataTracker.SerializedEntry<?>> getDirtyEntries() {
-        List<DataTracker.SerializedEntry<?>> list = null;
-        if (this.dirty) {
-            for (int i = 0; i < this.entries.length; i++) {
-                var entry = this.entries[i];
-                if (entry.isDirty()) {
-                    entry.setDirty(false);
-                    if (list == null) {
-                        list = new ArrayList<>();
-                    }
+        if (!this.dirty) {
+            return null;
+        }
+        this.dirty = false;
 
-                    list.add(entry.toSerialized());
+        int count = 0;
+        for (var mask : this.dirtyMask) {
+            count += Long.bitCount(mask);
+        }
+
+        if (count == 0) {
+            return null;
+        }
+
+        var array = new DataTracker.SerializedEntry<?>[count];
+        int size = 0;
+        for (int i = 0; i < this.dirtyMask.length; i++) {
+            var mask = this.dirtyMask[i];
+            this.dirtyMask[i] = 0;
+            while (mask != 0) {
+                var entry = this.entries[(i << 6) + Long.numberOfTrailingZeros(mask)];
+                mask &= mask - 1;
+                if (entry.dirty) {
+                    entry.dirty = false;
+                    array[size++] = entry.toSerialized();
                 }
             }
         }
 
-        this.dirty = false;
-        return list;
+        if (size == 0) {
+            return null;
+        }
+
+        return Arrays.asList(size == count ? array : Arrays.copyOf(array, size));
     }
 
     @Override
     @Nullable
     public List<DataTracker.SerializedEntry<?>> getChangedEntries() {
-        List<DataTracker.SerializedEntry<?>> list = null;
+        if (this.changedEntriesValid) {
+            return this.changedEntries;
+        }
+
+        int count = 0;
         for (int i = 0; i < this.entries.length; i++) {
-            var entry = this.entries[i];
-            if (!entry.isUnchanged()) {
-                if (list == null) {
-                    list = new ArrayList<>();
-                }
+            if (!this.entries[i].isUnchanged()) {
+                count++;
+            }
+        }
 
-                list.add(entry.toSerialized());
+        List<DataTracker.SerializedEntry<?>> list = null;
+        if (count != 0) {
+            var array = new DataTracker.SerializedEntry<?>[count];
+            int size = 0;
+            for (int i = 0; i < this.entries.length; i++) {
+                var entry = this.entries[i];
+                if (!entry.isUnchanged()) {
+                    array[size++] = entry.toSerialized();
+                }
             }
+            list = List.of(array);
         }
 
+        this.changedEntries = list;
+        this.changedEntriesValid = true;
         return list;
     }
 
@@ -124,6 +198,8 @@ public class SimpleDataTracker implements DataTrackerLike {
         private final T initialValue;
         T value;
         private boolean dirty;
+        @Nullable
+        private SimpleDataTracker tracker;
 
         public Entry(TrackedData<T> data, T value) {
             this.data = data;
@@ -137,6 +213,9 @@ public class SimpleDataTracker implements DataTrackerLike {
 
         public void set(T value) {
             this.value = value;
+            if (this.tracker != null) {
+                this.tracker.onEntrySet();
+            }
         }
 
         public T get() {
@@ -149,6 +228,9 @@ public class SimpleDataTracker implements DataTrackerLike {
 
         public void setDirty(boolean dirty) {
             this.dirty = dirty;
+            if (this.tracker != null) {
+                this.tracker.onEntryDirty(this.data.id(), dirty);
+            }
         }
 
         public boolean isUnchanged() {
@@ -4,6 +4,7 @@ import it.unimi.dsi.fastutil.ints.IntList;
 
 public interface EntityExt {
     IntList polymerVE$getVirtualRidden();
+    int[] polymerVE$getVirtualRiddenArray();
     void polymerVE$markVirtualRiddenDirty();
     boolean polymerVE$getAndClearVirtualRiddenDirty();
 }
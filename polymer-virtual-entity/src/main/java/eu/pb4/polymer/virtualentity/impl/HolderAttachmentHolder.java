@@ -15,4 +15,12 @@ public interface HolderAttachmentHolder {
         return null;
     }
     Collection<HolderAttachment> polymerVE$getHolders();
+
+    /**
+     * Snapshot of current holders, safe to iterate while holders are added or removed.
+     * Returned array must not be modified.
+     */
+    default HolderAttachment[] polymerVE$getHolderArray() {
+        return this.polymerVE$getHolders().toArray(HolderHolder.HOLDER_ATTACHMENTS);
+    }
 }
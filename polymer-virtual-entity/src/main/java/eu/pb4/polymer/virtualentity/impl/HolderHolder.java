@@ -2,6 +2,8 @@ package eu.pb4.polymer.virtualentity.impl;
 
 import eu.pb4.polymer.virtualentity.api.ElementHolder;
 import eu.pb4.polymer.virtualentity.api.attachment.HolderAttachment;
+import it.unimi.dsi.fastutil.ints.IntList;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 
@@ -12,4 +14,11 @@ public interface HolderHolder {
     void polymer$addHolder(ElementHolder holder);
     void polymer$removeHolder(ElementHolder holder);
     Collection<ElementHolder> polymer$getHolders();
+    Collection<ElementHolder> polymer$getHoldersInChunk(long chunkPos);
+    void polymer$updateHolderChunk(ElementHolder holder, long chunkPos);
+
+    void polymer$addHolderEntityIds(ElementHolder holder, IntList ids);
+    void polymer$removeHolderEntityIds(ElementHolder holder, IntList ids);
+    @Nullable
+    ElementHolder polymer$getHolderByEntityId(int id);
 }
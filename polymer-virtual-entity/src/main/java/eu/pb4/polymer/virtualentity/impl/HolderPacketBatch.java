@@ -0,0 +1,99 @@
+package eu.pb4.polymer.virtualentity.impl;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import net.minecraft.network.listener.ClientPlayPacketListener;
+import net.minecraft.network.packet.Packet;
+import net.minecraft.network.packet.s2c.play.BundleS2CPacket;
+import net.minecraft.server.network.ServerPlayNetworkHandler;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Collects tick packets of all holders ticked during a single phase of server tick (for example all moving pistons),
+ * so every player receives them as one bundle instead of one per holder.
+ */
+@ApiStatus.Internal
+public final class HolderPacketBatch {
+    private static final int MAX_BUNDLE_SIZE = 4000;
+    /**
+     * Batch is kept per thread, as worlds can be ticked in parallel by other mods
+     */
+    private static final ThreadLocal<HolderPacketBatch> CURRENT = new ThreadLocal<>();
+
+    private final Reference2ObjectLinkedOpenHashMap<ServerPlayNetworkHandler, List<Packet<? super ClientPlayPacketListener>>> packets = new Reference2ObjectLinkedOpenHashMap<>();
+
+    public static void start() {
+        var batch = CURRENT.get();
+        if (batch != null) {
+            batch.flushAll();
+        }
+        CURRENT.set(new HolderPacketBatch());
+    }
+
+    public static void finish() {
+        var batch = CURRENT.get();
+        CURRENT.remove();
+        if (batch != null) {
+            batch.flushAll();
+        }
+    }
+
+    @Nullable
+    public static HolderPacketBatch get() {
+        return CURRENT.get();
+    }
+
+    public void add(ServerPlayNetworkHandler player, List<Packet<? super ClientPlayPacketListener>> packets) {
+        if (packets.isEmpty()) {
+            return;
+        }
+        var list = this.packets.get(player);
+        if (list == null) {
+            list = new ArrayList<>(packets.size());
+            this.packets.put(player, list);
+        }
+        list.addAll(packets);
+    }
+
+    /**
+     * Sends packets collected for player, used before sending anything to them directly to keep packet order.
+     */
+    public void flush(ServerPlayNetworkHandler player) {
+        var list = this.packets.remove(player);
+        if (list != null) {
+            send(player, list);
+        }
+    }
+
+    private void flushAll() {
+        for (var entry : this.packets.reference2ObjectEntrySet()) {
+            send(entry.getKey(), entry.getValue());
+        }
+        this.packets.clear();
+    }
+
+    private static void send(ServerPlayNetworkHandler player, List<Packet<? super ClientPlayPacketListener>> packets) {
+        if (!player.isConnectionOpen()) {
+            return;
+        }
+        for (var packet : bundle(packets)) {
+            player.sendPacket(packet);
+        }
+    }
+
+    public static List<Packet<? super ClientPlayPacketListener>> bundle(List<Packet<? super ClientPlayPacketListener>> packets) {
+        if (packets.size() <= 1) {
+            return packets.isEmpty() ? List.of() : List.of(packets.get(0));
+        }
+
+        var out = new ArrayList<Packet<? super ClientPlayPacketListener>>();
+        // Vanilla client rejects bundles larger than 4096 packets
+        for (int i = 0; i < packets.size(); i += MAX_BUNDLE_SIZE) {
+            out.add(new BundleS2CPacket(List.copyOf(packets.subList(i, Math.min(i + MAX_BUNDLE_SIZE, packets.size())))));
+        }
+        return out;
+    }
+}
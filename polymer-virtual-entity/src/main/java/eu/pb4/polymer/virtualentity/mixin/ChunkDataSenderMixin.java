@@ -15,8 +15,6 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import java.util.ArrayList;
-
 @Mixin(ChunkDataSender.class)
 public class ChunkDataSenderMixin {
     @Inject(method = "sendChunkData", at = @At("TAIL"), require = 0)
@@ -28,9 +26,15 @@ public class ChunkDataSenderMixin {
 
     @Inject(method = "unload", at = @At("HEAD"), require = 0)
     private void polymerVE$chunkUnload(ServerPlayerEntity player, ChunkPos pos, CallbackInfo ci) {
-        for (var holder : new ArrayList<>(((HolderHolder) player.networkHandler).polymer$getHolders())) {
-            if (holder.getAttachment() != null && holder.getChunkPos().equals(pos)) {
-                holder.getAttachment().updateTracking(player.networkHandler);
+        var holders = ((HolderHolder) player.networkHandler).polymer$getHoldersInChunk(pos.toLong());
+        if (!holders.isEmpty()) {
+            var arr = holders.toArray(HolderHolder.ELEMENT_HOLDERS);
+            for (int i = 0; i < arr.length; i++) {
+                var holder = arr[i];
+                // Index is only a hint, position is checked again in case holder moved without updating it
+                if (holder.getAttachment() != null && holder.getChunkPos().equals(pos)) {
+                    holder.getAttachment().updateTracking(player.networkHandler);
+                }
             }
         }
     }
@@ -22,6 +22,8 @@ public abstract class EntityMixin implements HolderAttachmentHolder, EntityExt {
     @Unique
     private final IntList polymerVE$virtualRidden = new IntArrayList();
     @Unique
+    private int[] polymerVE$virtualRiddenArray = null;
+    @Unique
     private boolean polymerVE$virtualRiddenDirty = false;
 
     @Override
@@ -44,9 +46,18 @@ public abstract class EntityMixin implements HolderAttachmentHolder, EntityExt {
         return this.polymerVE$virtualRidden;
     }
 
+    @Override
+    public int[] polymerVE$getVirtualRiddenArray() {
+        if (this.polymerVE$virtualRiddenArray == null) {
+            this.polymerVE$virtualRiddenArray = this.polymerVE$virtualRidden.toIntArray();
+        }
+        return this.polymerVE$virtualRiddenArray;
+    }
+
     @Override
     public void polymerVE$markVirtualRiddenDirty() {
         this.polymerVE$virtualRiddenDirty = true;
+        this.polymerVE$virtualRiddenArray = null;
     }
 
     @Override
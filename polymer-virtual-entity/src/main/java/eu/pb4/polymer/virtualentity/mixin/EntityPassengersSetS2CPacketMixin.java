@@ -1,14 +1,13 @@
 package eu.pb4.polymer.virtualentity.mixin;
 
 import eu.pb4.polymer.common.api.PolymerCommonUtils;
+import eu.pb4.polymer.virtualentity.api.ElementHolder;
 import eu.pb4.polymer.virtualentity.impl.EntityExt;
 import eu.pb4.polymer.virtualentity.impl.HolderAttachmentHolder;
-import it.unimi.dsi.fastutil.ints.IntArrayList;
-import it.unimi.dsi.fastutil.ints.IntList;
 import net.minecraft.entity.Entity;
 import net.minecraft.network.packet.s2c.play.EntityPassengersSetS2CPacket;
-import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.util.Pair;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Mutable;
 import org.spongepowered.asm.mixin.Shadow;
@@ -19,8 +18,6 @@ import org.spongepowered.asm.mixin.injection.ModifyArg;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 
 @Mixin(EntityPassengersSetS2CPacket.class)
@@ -28,30 +25,33 @@ public class EntityPassengersSetS2CPacketMixin {
     @Shadow @Mutable
     private int[] passengerIds;
     @Unique
-    private final List<Pair<Collection<ServerPlayNetworkHandler>, IntList>> virtualPassengers = new ArrayList<>();
+    @Nullable
+    private List<Pair<ElementHolder, int[]>> virtualPassengers;
 
     @Inject(method = "<init>(Lnet/minecraft/entity/Entity;)V", at = @At(value = "TAIL"))
     private void polymerVE$addExtraPassangers(Entity entity, CallbackInfo ci) {
-        var virt = ((EntityExt) entity).polymerVE$getVirtualRidden();
-        if (!virt.isEmpty()) {
+        var virt = ((EntityExt) entity).polymerVE$getVirtualRiddenArray();
+        if (virt.length != 0) {
             var old = this.passengerIds;
-            this.passengerIds = Arrays.copyOf(this.passengerIds, old.length + virt.size());
-            for (int i = 0; i < virt.size(); i++) {
-                this.passengerIds[i + old.length] = virt.getInt(i);
-            }
+            this.passengerIds = new int[old.length + virt.length];
+            System.arraycopy(old, 0, this.passengerIds, 0, old.length);
+            System.arraycopy(virt, 0, this.passengerIds, old.length, virt.length);
         }
 
         for (var holder : ((HolderAttachmentHolder) entity).polymerVE$getHolders()) {
-            var x = holder.holder().getAttachedPassengerEntityIds();
-            if (!x.isEmpty()) {
-                this.virtualPassengers.add(new Pair<>(holder.holder().getWatchingPlayers(), x));
+            var ids = holder.holder().getAttachedPassengerEntityIdArray();
+            if (ids.length != 0) {
+                if (this.virtualPassengers == null) {
+                    this.virtualPassengers = new ArrayList<>(2);
+                }
+                this.virtualPassengers.add(new Pair<>(holder.holder(), ids));
             }
         }
     }
 
     @ModifyArg(method = "write", at = @At(value = "INVOKE", target = "Lnet/minecraft/network/PacketByteBuf;writeIntArray([I)Lnet/minecraft/network/PacketByteBuf;"))
     private int[] addDynamicPassengers(int[] a) {
-        if (this.virtualPassengers == null || this.virtualPassengers.isEmpty()) {
+        if (this.virtualPassengers == null) {
             return a;
         }
         var player = PolymerCommonUtils.getPlayerContext();
@@ -59,14 +59,28 @@ public class EntityPassengersSetS2CPacketMixin {
             return a;
         }
 
-        var arr = new IntArrayList(a);
+        int size = a.length;
+        for (var x : this.virtualPassengers) {
+            if (x.getLeft().getWatchingPlayers().contains(player.networkHandler)) {
+                size += x.getRight().length;
+            }
+        }
+
+        if (size == a.length) {
+            return a;
+        }
 
+        var arr = new int[size];
+        System.arraycopy(a, 0, arr, 0, a.length);
+        int index = a.length;
         for (var x : this.virtualPassengers) {
-            if (x.getLeft().contains(player.networkHandler)) {
-                arr.addAll(x.getRight());
+            if (x.getLeft().getWatchingPlayers().contains(player.networkHandler)) {
+                var ids = x.getRight();
+                System.arraycopy(ids, 0, arr, index, ids.length);
+                index += ids.length;
             }
         }
 
-        return arr.toIntArray();
+        return arr;
     }
 }
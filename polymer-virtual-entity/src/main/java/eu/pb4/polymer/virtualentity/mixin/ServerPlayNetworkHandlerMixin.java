@@ -4,10 +4,16 @@ package eu.pb4.polymer.virtualentity.mixin;
 import eu.pb4.polymer.virtualentity.api.ElementHolder;
 import eu.pb4.polymer.virtualentity.impl.HolderHolder;
 import eu.pb4.polymer.virtualentity.impl.PacketInterHandler;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import net.minecraft.entity.Entity;
 import net.minecraft.network.packet.c2s.play.PlayerInteractEntityC2SPacket;
 import net.minecraft.server.network.ServerPlayNetworkHandler;
 import net.minecraft.server.network.ServerPlayerEntity;
+import org.jetbrains.annotations.Nullable;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
@@ -18,22 +24,92 @@ import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 
 @Mixin(ServerPlayNetworkHandler.class)
 public class ServerPlayNetworkHandlerMixin implements HolderHolder {
     @Unique
-    private final Collection<ElementHolder> polymerVE$holders = new ArrayList<>();
+    private final Set<ElementHolder> polymerVE$holders = new ReferenceLinkedOpenHashSet<>();
+    @Unique
+    private final Int2ObjectOpenHashMap<ElementHolder> polymerVE$holdersByEntityId = new Int2ObjectOpenHashMap<>();
+    @Unique
+    private final Long2ObjectOpenHashMap<Set<ElementHolder>> polymerVE$holdersByChunk = new Long2ObjectOpenHashMap<>();
+    @Unique
+    private final Reference2LongOpenHashMap<ElementHolder> polymerVE$holderChunks = new Reference2LongOpenHashMap<>();
     @Shadow
     public ServerPlayerEntity player;
 
     @Override
     public void polymer$addHolder(ElementHolder holderAttachment) {
-        this.polymerVE$holders.add(holderAttachment);
+        if (this.polymerVE$holders.add(holderAttachment)) {
+            this.polymer$addHolderEntityIds(holderAttachment, holderAttachment.getEntityIds());
+            this.polymerVE$addToChunk(holderAttachment, holderAttachment.getChunkPos().toLong());
+        }
     }
 
     @Override
     public void polymer$removeHolder(ElementHolder holderAttachment) {
-        this.polymerVE$holders.remove(holderAttachment);
+        if (this.polymerVE$holders.remove(holderAttachment)) {
+            this.polymer$removeHolderEntityIds(holderAttachment, holderAttachment.getEntityIds());
+            this.polymerVE$removeFromChunk(holderAttachment);
+        }
+    }
+
+    @Override
+    public void polymer$updateHolderChunk(ElementHolder holder, long chunkPos) {
+        if (this.polymerVE$holderChunks.containsKey(holder) && this.polymerVE$holderChunks.getLong(holder) != chunkPos) {
+            this.polymerVE$removeFromChunk(holder);
+            this.polymerVE$addToChunk(holder, chunkPos);
+        }
+    }
+
+    @Override
+    public Collection<ElementHolder> polymer$getHoldersInChunk(long chunkPos) {
+        var holders = this.polymerVE$holdersByChunk.get(chunkPos);
+        return holders != null ? holders : List.of();
+    }
+
+    @Unique
+    private void polymerVE$addToChunk(ElementHolder holder, long chunkPos) {
+        var holders = this.polymerVE$holdersByChunk.get(chunkPos);
+        if (holders == null) {
+            holders = new ReferenceLinkedOpenHashSet<>();
+            this.polymerVE$holdersByChunk.put(chunkPos, holders);
+        }
+        holders.add(holder);
+        this.polymerVE$holderChunks.put(holder, chunkPos);
+    }
+
+    @Unique
+    private void polymerVE$removeFromChunk(ElementHolder holder) {
+        if (!this.polymerVE$holderChunks.containsKey(holder)) {
+            return;
+        }
+        var chunkPos = this.polymerVE$holderChunks.removeLong(holder);
+        var holders = this.polymerVE$holdersByChunk.get(chunkPos);
+        if (holders != null && holders.remove(holder) && holders.isEmpty()) {
+            this.polymerVE$holdersByChunk.remove(chunkPos);
+        }
+    }
+
+    @Override
+    public void polymer$addHolderEntityIds(ElementHolder holder, IntList ids) {
+        for (int i = 0; i < ids.size(); i++) {
+            this.polymerVE$holdersByEntityId.put(ids.getInt(i), holder);
+        }
+    }
+
+    @Override
+    public void polymer$removeHolderEntityIds(ElementHolder holder, IntList ids) {
+        for (int i = 0; i < ids.size(); i++) {
+            this.polymerVE$holdersByEntityId.remove(ids.getInt(i), holder);
+        }
+    }
+
+    @Override
+    public @Nullable ElementHolder polymer$getHolderByEntityId(int id) {
+        return this.polymerVE$holdersByEntityId.get(id);
     }
 
     @Override
@@ -44,8 +120,18 @@ public class ServerPlayNetworkHandlerMixin implements HolderHolder {
     @Inject(method = "tick", at = @At("TAIL"))
     private void polymerVE$tick(CallbackInfo ci) {
         try {
-            for (var holder : new ArrayList<>(this.polymerVE$holders)) {
+            List<ElementHolder> detached = null;
+            for (var holder : this.polymerVE$holders) {
                 if (holder.getAttachment() == null) {
+                    if (detached == null) {
+                        detached = new ArrayList<>();
+                    }
+                    detached.add(holder);
+                }
+            }
+
+            if (detached != null) {
+                for (var holder : detached) {
                     holder.stopWatching(this.player);
                 }
             }
@@ -55,15 +141,13 @@ public class ServerPlayNetworkHandlerMixin implements HolderHolder {
 
     @ModifyVariable(method = "onPlayerInteractEntity", at = @At(value = "STORE", ordinal = 0))
     private Entity polymerVE$onInteract(Entity entity, PlayerInteractEntityC2SPacket packet) {
-        if (entity == null && !this.polymerVE$holders.isEmpty()) {
+        if (entity == null && !this.polymerVE$holdersByEntityId.isEmpty()) {
             var id = ((PlayerInteractEntityC2SPacketAccessor) packet).getEntityId();
-            for (var x : this.polymerVE$holders) {
-                if (x.isPartOf(id)) {
-                    var i = x.getInteraction(id, this.player);
-                    if (i != null) {
-                        packet.handle(new PacketInterHandler(this.player, i));
-                        break;
-                    }
+            var x = this.polymerVE$holdersByEntityId.get(id);
+            if (x != null) {
+                var i = x.getInteraction(id, this.player);
+                if (i != null) {
+                    packet.handle(new PacketInterHandler(this.player, i));
                 }
             }
         }
@@ -4,6 +4,7 @@ import com.llamalad7.mixinextras.sugar.Local;
 import eu.pb4.polymer.virtualentity.api.attachment.HolderAttachment;
 import eu.pb4.polymer.virtualentity.impl.HolderAttachmentHolder;
 import eu.pb4.polymer.virtualentity.impl.HolderHolder;
+import eu.pb4.polymer.virtualentity.impl.HolderPacketBatch;
 import net.minecraft.network.packet.s2c.play.ChunkDataS2CPacket;
 import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.server.world.ChunkHolder;
@@ -22,6 +23,16 @@ import java.util.concurrent.CompletableFuture;
 
 @Mixin(ServerChunkLoadingManager.class)
 public abstract class ServerChunkLoadingManagerMixin {
+    @Inject(method = "tickEntityMovement", at = @At("HEAD"))
+    private void polymerVE$startEntityBatch(CallbackInfo ci) {
+        // Holders attached to entities (including falling blocks) tick from their tracker entries
+        HolderPacketBatch.start();
+    }
+
+    @Inject(method = "tickEntityMovement", at = @At("TAIL"))
+    private void polymerVE$finishEntityBatch(CallbackInfo ci) {
+        HolderPacketBatch.finish();
+    }
 
     @Inject(method = "handlePlayerAddedOrRemoved", at = @At("TAIL"))
     private void polymerVE$clearHolograms(ServerPlayerEntity player, boolean added, CallbackInfo ci) {
@@ -42,14 +53,11 @@ public abstract class ServerChunkLoadingManagerMixin {
     @Inject(method = "method_60440", at = @At(value = "INVOKE", target = "Lnet/minecraft/world/chunk/WorldChunk;setLoadedToWorld(Z)V", shift = At.Shift.AFTER))
     private void onChunkUnload(ChunkHolder chunkHolder, long l, CallbackInfo ci, @Local WorldChunk chunk) {
         if (chunk instanceof HolderAttachmentHolder x) {
-            var holders = x.polymerVE$getHolders();
-            if (!holders.isEmpty()) {
-                var arr = holders.toArray(HolderHolder.HOLDER_ATTACHMENTS);
-                for (int i = 0; i < arr.length; i++) {
-                    var holder = arr[i];
-                    if (holder != null) {
-                        holder.destroy();
-                    }
+            var arr = x.polymerVE$getHolderArray();
+            for (int i = 0; i < arr.length; i++) {
+                var holder = arr[i];
+                if (holder != null) {
+                    holder.destroy();
                 }
             }
         }
@@ -1,7 +1,7 @@
 package eu.pb4.polymer.virtualentity.mixin.block;
 
 import eu.pb4.polymer.virtualentity.impl.HolderAttachmentHolder;
-import eu.pb4.polymer.virtualentity.impl.HolderHolder;
+import eu.pb4.polymer.virtualentity.impl.HolderPacketBatch;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.chunk.WorldChunk;
 import org.spongepowered.asm.mixin.Mixin;
@@ -9,21 +9,24 @@ import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 
-import java.util.ArrayList;
-import java.util.List;
-
 @Mixin(ServerWorld.class)
 public abstract class ServerWorldMixin {
+    @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/world/ServerWorld;tickBlockEntities()V"))
+    private void polymerVE$startBlockEntityBatch(CallbackInfo ci) {
+        // Moving pistons update their holders while ticking, so their packets are sent together
+        HolderPacketBatch.start();
+    }
+
+    @Inject(method = "tick", at = @At(value = "INVOKE", target = "Lnet/minecraft/server/world/ServerWorld;tickBlockEntities()V", shift = At.Shift.AFTER))
+    private void polymerVE$finishBlockEntityBatch(CallbackInfo ci) {
+        HolderPacketBatch.finish();
+    }
 
     @Inject(method = "tickChunk", at = @At("TAIL"))
     private void polymerVE$tickChunk(WorldChunk chunk, int randomTickSpeed, CallbackInfo ci) {
-        var holo = ((HolderAttachmentHolder) chunk).polymerVE$getHolders();
-
-        if (!holo.isEmpty()) {
-            var arr = holo.toArray(HolderHolder.HOLDER_ATTACHMENTS);
-            for (int i = 0; i < arr.length; i++) {
-                arr[i].tick();
-            }
+        var arr = ((HolderAttachmentHolder) chunk).polymerVE$getHolderArray();
+        for (int i = 0; i < arr.length; i++) {
+            arr[i].tick();
         }
     }
 }
@@ -4,7 +4,9 @@ import eu.pb4.polymer.virtualentity.api.BlockWithElementHolder;
 import eu.pb4.polymer.virtualentity.api.attachment.BlockBoundAttachment;
 import eu.pb4.polymer.virtualentity.api.attachment.HolderAttachment;
 import eu.pb4.polymer.virtualentity.impl.HolderAttachmentHolder;
-import it.unimi.dsi.fastutil.objects.Object2ObjectOpenHashMap;
+import eu.pb4.polymer.virtualentity.impl.HolderHolder;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
 import net.minecraft.block.BlockState;
 import net.minecraft.registry.Registry;
 import net.minecraft.server.world.ServerWorld;
@@ -37,9 +39,13 @@ import java.util.*;
 public abstract class WorldChunkMixin extends Chunk implements HolderAttachmentHolder {
 
     @Unique
-    private final Collection<HolderAttachment> polymerVE$holders = new ArrayList<>();
+    private final Set<HolderAttachment> polymerVE$holders = new ReferenceLinkedOpenHashSet<>();
     @Unique
-    private final Map<BlockPos, BlockBoundAttachment> polymerVE$posHolders = new Object2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<BlockBoundAttachment> polymerVE$posHolders = new Long2ObjectOpenHashMap<>();
+    @Unique
+    private HolderAttachment[] polymerVE$holderArray = HolderHolder.HOLDER_ATTACHMENTS;
+    @Unique
+    private boolean polymerVE$holderArrayDirty = false;
     @Shadow
     @Final
     private World world;
@@ -84,7 +90,7 @@ public abstract class WorldChunkMixin extends Chunk implements HolderAttachmentH
 
     @Inject(method = "setBlockState", at = @At(value = "INVOKE", target = "Lnet/minecraft/block/BlockState;onStateReplaced(Lnet/minecraft/world/World;Lnet/minecraft/util/math/BlockPos;Lnet/minecraft/block/BlockState;Z)V"), locals = LocalCapture.CAPTURE_FAILSOFT)
     private void polymerVE$removeOld(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir, int i, ChunkSection section, boolean bool, int j, int k, int l, BlockState oldBlockState) {
-        var x = this.polymerVE$posHolders.get(pos);
+        var x = this.polymerVE$posHolders.get(pos.asLong());
         if (x != null) {
             if (x.getBlockState().getBlock() != state.getBlock()) {
                 this.polymerVE$removePosHolder(pos);
@@ -96,7 +102,7 @@ public abstract class WorldChunkMixin extends Chunk implements HolderAttachmentH
 
     @Inject(method = "setBlockState", at = @At(value = "FIELD", target = "Lnet/minecraft/world/World;isClient:Z", ordinal = 1, shift = At.Shift.BEFORE), locals = LocalCapture.CAPTURE_FAILSOFT)
     private void polymerVE$addNew(BlockPos pos, BlockState state, boolean moved, CallbackInfoReturnable<BlockState> cir, int i, ChunkSection section, boolean bool, int j, int k, int l, BlockState oldBlockState) {
-        var x = this.polymerVE$posHolders.get(pos);
+        var x = this.polymerVE$posHolders.get(pos.asLong());
         if (x == null && state.getBlock() instanceof BlockWithElementHolder blockWithElementHolder && this.world instanceof ServerWorld serverWorld) {
             var holder = blockWithElementHolder.createElementHolder(serverWorld, pos, state);
             if (holder != null) {
@@ -107,34 +113,49 @@ public abstract class WorldChunkMixin extends Chunk implements HolderAttachmentH
 
     @Override
     public void polymerVE$addHolder(HolderAttachment holderAttachment) {
-        this.polymerVE$holders.add(holderAttachment);
+        if (this.polymerVE$holders.add(holderAttachment)) {
+            this.polymerVE$holderArrayDirty = true;
+        }
         if (holderAttachment instanceof BlockBoundAttachment blockBoundAttachment) {
-            this.polymerVE$posHolders.put(blockBoundAttachment.getBlockPos(), blockBoundAttachment);
+            this.polymerVE$posHolders.put(blockBoundAttachment.getBlockPos().asLong(), blockBoundAttachment);
         }
     }
 
     @Override
     public void polymerVE$removeHolder(HolderAttachment holderAttachment) {
-        this.polymerVE$holders.remove(holderAttachment);
+        if (this.polymerVE$holders.remove(holderAttachment)) {
+            this.polymerVE$holderArrayDirty = true;
+        }
         if (holderAttachment instanceof BlockBoundAttachment blockBoundAttachment) {
-            this.polymerVE$posHolders.remove(blockBoundAttachment);
+            this.polymerVE$posHolders.remove(blockBoundAttachment.getBlockPos().asLong(), blockBoundAttachment);
         }
     }
 
     @Override
     public BlockBoundAttachment polymerVE$getPosHolder(BlockPos pos) {
-        return this.polymerVE$posHolders.get(pos);
+        return this.polymerVE$posHolders.get(pos.asLong());
     }
 
     @Override
     public void polymerVE$removePosHolder(BlockPos pos) {
-        var x = this.polymerVE$posHolders.remove(pos);
+        var x = this.polymerVE$posHolders.remove(pos.asLong());
         if (x != null) {
-            this.polymerVE$holders.remove(x);
+            if (this.polymerVE$holders.remove(x)) {
+                this.polymerVE$holderArrayDirty = true;
+            }
             x.destroy();
         }
     }
 
+    @Override
+    public HolderAttachment[] polymerVE$getHolderArray() {
+        if (this.polymerVE$holderArrayDirty) {
+            this.polymerVE$holderArray = this.polymerVE$holders.toArray(HolderHolder.HOLDER_ATTACHMENTS);
+            this.polymerVE$holderArrayDirty = false;
+        }
+        return this.polymerVE$holderArray;
+    }
+
     @Override
     public Collection<HolderAttachment> polymerVE$getHolders() {
         return this.polymerVE$holders;